@@ -21,6 +21,9 @@ under the License.
 
 public class BIG {
 	private int[] w=new int[ROM.NLEN];
+
+/* true if Kernel was generated for this NLEN and BASEBITS. BIG.mul and BIG.sqr always use it */
+	static final boolean UNROLLED=(Kernel.NLEN==ROM.NLEN && Kernel.BASEBITS==ROM.BASEBITS);
 /* Constructors */
 
 	public BIG()
@@ -87,6 +90,15 @@ public class BIG {
 		return true;
 	}
 
+/* 1 if this=0, or else 0, reading every digit whatever their values */
+	int ctzilch()
+	{
+		int d=0;
+		for (int i=0;i<ROM.NLEN;i++)
+			d|=w[i];
+		return (int)(((d|-d)>>>31)^1);
+	}
+
 /* set to zero */
 	public void zero()
 	{
@@ -153,6 +165,7 @@ public class BIG {
 
 /* normalise BIG - force all digits < 2^BASEBITS */
 	public int norm() {
+		if (UNROLLED) return Kernel.norm(w);
 		int d,carry=0;
 		for (int i=0;i<ROM.NLEN-1;i++)
 		{
@@ -646,74 +659,56 @@ nbs is number of bits processed, and nzs is number of trailing 0s detected */
 /* return a*b as DBIG */
 	public static DBIG mul(BIG a,BIG b)
 	{
-		long t,co;
 		DBIG c=new DBIG(0);
-		a.norm();
-		b.norm();
-
-		t=(long)a.w[0]*b.w[0]; c.w[0]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[1]*b.w[0]+(long)a.w[0]*b.w[1]+co; c.w[1]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[2]*b.w[0]+(long)a.w[1]*b.w[1]+(long)a.w[0]*b.w[2]+co; c.w[2]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[3]*b.w[0]+(long)a.w[2]*b.w[1]+(long)a.w[1]*b.w[2]+(long)a.w[0]*b.w[3]+co; c.w[3]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[4]*b.w[0]+(long)a.w[3]*b.w[1]+(long)a.w[2]*b.w[2]+(long)a.w[1]*b.w[3]+(long)a.w[0]*b.w[4]+co; c.w[4]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[5]*b.w[0]+(long)a.w[4]*b.w[1]+(long)a.w[3]*b.w[2]+(long)a.w[2]*b.w[3]+(long)a.w[1]*b.w[4]+(long)a.w[0]*b.w[5]+co; c.w[5]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[6]*b.w[0]+(long)a.w[5]*b.w[1]+(long)a.w[4]*b.w[2]+(long)a.w[3]*b.w[3]+(long)a.w[2]*b.w[4]+(long)a.w[1]*b.w[5]+(long)a.w[0]*b.w[6]+co; c.w[6]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[7]*b.w[0]+(long)a.w[6]*b.w[1]+(long)a.w[5]*b.w[2]+(long)a.w[4]*b.w[3]+(long)a.w[3]*b.w[4]+(long)a.w[2]*b.w[5]+(long)a.w[1]*b.w[6]+(long)a.w[0]*b.w[7]+co; c.w[7]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*b.w[0]+(long)a.w[7]*b.w[1]+(long)a.w[6]*b.w[2]+(long)a.w[5]*b.w[3]+(long)a.w[4]*b.w[4]+(long)a.w[3]*b.w[5]+(long)a.w[2]*b.w[6]+(long)a.w[1]*b.w[7]+(long)a.w[0]*b.w[8]+co; c.w[8]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-
-		t=(long)a.w[8]*b.w[1]+(long)a.w[7]*b.w[2]+(long)a.w[6]*b.w[3]+(long)a.w[5]*b.w[4]+(long)a.w[4]*b.w[5]+(long)a.w[3]*b.w[6]+(long)a.w[2]*b.w[7]+(long)a.w[1]*b.w[8]+co; c.w[9]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*b.w[2]+(long)a.w[7]*b.w[3]+(long)a.w[6]*b.w[4]+(long)a.w[5]*b.w[5]+(long)a.w[4]*b.w[6]+(long)a.w[3]*b.w[7]+(long)a.w[2]*b.w[8]+co; c.w[10]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*b.w[3]+(long)a.w[7]*b.w[4]+(long)a.w[6]*b.w[5]+(long)a.w[5]*b.w[6]+(long)a.w[4]*b.w[7]+(long)a.w[3]*b.w[8]+co; c.w[11]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*b.w[4]+(long)a.w[7]*b.w[5]+(long)a.w[6]*b.w[6]+(long)a.w[5]*b.w[7]+(long)a.w[4]*b.w[8]+co; c.w[12]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*b.w[5]+(long)a.w[7]*b.w[6]+(long)a.w[6]*b.w[7]+(long)a.w[5]*b.w[8]+co; c.w[13]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*b.w[6]+(long)a.w[7]*b.w[7]+(long)a.w[6]*b.w[8]+co; c.w[14]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*b.w[7]+(long)a.w[7]*b.w[8]+co; c.w[15]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-
-		t=(long)a.w[8]*b.w[8]+co; c.w[16]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		c.w[17]=(int)co;
-
+		mul(a,b,c);
 		return c;
 	}
 
+/* c=a*b, into an existing DBIG */
+	public static void mul(BIG a,BIG b,DBIG c)
+	{
+		a.norm();
+		b.norm();
+		Kernel.mul(a.w,b.w,c.w);
+	}
 
 /* return a^2 as DBIG */
 	public static DBIG sqr(BIG a)
 	{
-		long t,co;
 		DBIG c=new DBIG(0);
-		a.norm();
-
-		t=(long)a.w[0]*a.w[0]; c.w[0]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[1]*a.w[0]; t+=t; t+=co; c.w[1]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[2]*a.w[0]; t+=t; t+=(long)a.w[1]*a.w[1]; t+=co; c.w[2]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[3]*a.w[0]+(long)a.w[2]*a.w[1]; t+=t; t+=co; c.w[3]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[4]*a.w[0]+(long)a.w[3]*a.w[1]; t+=t; t+=(long)a.w[2]*a.w[2]; t+=co; c.w[4]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[5]*a.w[0]+(long)a.w[4]*a.w[1]+(long)a.w[3]*a.w[2]; t+=t; t+=co; c.w[5]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[6]*a.w[0]+(long)a.w[5]*a.w[1]+(long)a.w[4]*a.w[2]; t+=t; t+=(long)a.w[3]*a.w[3]; t+=co; c.w[6]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[7]*a.w[0]+(long)a.w[6]*a.w[1]+(long)a.w[5]*a.w[2]+(long)a.w[4]*a.w[3]; t+=t; t+=co; c.w[7]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[0]+(long)a.w[7]*a.w[1]+(long)a.w[6]*a.w[2]+(long)a.w[5]*a.w[3]; t+=t; t+=(long)a.w[4]*a.w[4]; t+=co; c.w[8]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[1]+(long)a.w[7]*a.w[2]+(long)a.w[6]*a.w[3]+(long)a.w[5]*a.w[4]; t+=t; t+=co; c.w[9]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[2]+(long)a.w[7]*a.w[3]+(long)a.w[6]*a.w[4]; t+=t; t+=(long)a.w[5]*a.w[5]; t+=co; c.w[10]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[3]+(long)a.w[7]*a.w[4]+(long)a.w[6]*a.w[5]; t+=t; t+=co; c.w[11]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[4]+(long)a.w[7]*a.w[5]; t+=t; t+=(long)a.w[6]*a.w[6]; t+=co; c.w[12]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[5]+(long)a.w[7]*a.w[6]; t+=t; t+=co; c.w[13]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[6]; t+=t; t+=(long)a.w[7]*a.w[7]; t+=co; c.w[14]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[7]; t+=t; t+=co; c.w[15]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		t=(long)a.w[8]*a.w[8]+co; c.w[16]=(int)t&ROM.MASK; co=t>>ROM.BASEBITS;
-		c.w[17]=(int)co;
-
+		sqr(a,c);
 		return c;
 	}
 
+/* c=a^2, into an existing DBIG */
+	public static void sqr(BIG a,DBIG c)
+	{
+		a.norm();
+		Kernel.sqr(a.w,c.w);
+	}
+
 /* reduce a DBIG to a BIG using the appropriate form of the modulus */
 	public static BIG mod(DBIG d)
 	{
-		BIG b;
+		BIG b=new BIG(0);
+		mod(d,b);
+		return b;
+	}
+
+/* b=d reduced using the appropriate form of the modulus. d is destroyed */
+	public static void mod(DBIG d,BIG b)
+	{
 		if (ROM.MODTYPE==ROM.PSEUDO_MERSENNE)
 		{
+			if (UNROLLED)
+			{
+				Kernel.pmred(d.w,b.w);
+				return;
+			}
 			int v,tw;
-			BIG t=d.split(ROM.MODBITS);
-			b=new BIG(d);
+			BIG t=Scratch.get().t;
+			d.split(ROM.MODBITS,t);
+			b.copy(d);
 
 			v=t.pmul(ROM.MConst);
 			tw=t.w[ROM.NLEN-1];
@@ -725,11 +720,14 @@ nbs is number of bits processed, and nzs is number of trailing 0s detected */
 		}
 		if (ROM.MODTYPE==ROM.MONTGOMERY_FRIENDLY)
 		{
+			if (UNROLLED)
+			{
+				Kernel.mfred(d.w,b.w);
+				return;
+			}
 			for (int i=0;i<ROM.NLEN;i++)
 				d.w[ROM.NLEN+i]+=d.muladd(d.w[i],ROM.MConst-1,d.w[i],ROM.NLEN+i-1);
 
-			b=new BIG(0);
-
 			for (int i=0;i<ROM.NLEN;i++ )
 				b.w[i]=d.w[ROM.NLEN+i];
 			b.norm();
@@ -737,38 +735,39 @@ nbs is number of bits processed, and nzs is number of trailing 0s detected */
 
 		if (ROM.MODTYPE==ROM.NOT_SPECIAL)
 		{
-			BIG md=new BIG(ROM.Modulus);
+			if (UNROLLED)
+			{
+				Kernel.monty(d.w,b.w);
+				return;
+			}
+			int[] md=ROM.Modulus;
 			long sum;
 			int sp;
 			sum=d.w[0];
 			for (int j=0;j<ROM.NLEN;j++)
 			{
-				for (int i=0;i<j;i++) sum+=(long)d.w[i]*md.w[j-i];
+				for (int i=0;i<j;i++) sum+=(long)d.w[i]*md[j-i];
 				sp=((int)sum*ROM.MConst)&ROM.MASK;
-				d.w[j]=sp; sum+=(long)sp*md.w[0];
+				d.w[j]=sp; sum+=(long)sp*md[0];
 				sum=d.w[j+1]+(sum>>ROM.BASEBITS);
 			}
 
 			for (int j=ROM.NLEN;j<ROM.DNLEN-2;j++)
 			{
-				for (int i=j-ROM.NLEN+1;i<ROM.NLEN;i++) sum+=(long)d.w[i]*md.w[j-i];
+				for (int i=j-ROM.NLEN+1;i<ROM.NLEN;i++) sum+=(long)d.w[i]*md[j-i];
 				d.w[j]=(int)sum&ROM.MASK;
 				sum=d.w[j+1]+(sum>>ROM.BASEBITS);
 			}
 
-			sum+=(long)d.w[ROM.NLEN-1]*md.w[ROM.NLEN-1];
+			sum+=(long)d.w[ROM.NLEN-1]*md[ROM.NLEN-1];
 			d.w[ROM.DNLEN-2]=(int)sum&ROM.MASK;
 			sum=d.w[ROM.DNLEN-1]+(sum>>ROM.BASEBITS);
 			d.w[ROM.DNLEN-1]=(int)sum&ROM.MASK;
 
-			b=new BIG(0);
-
 			for (int i=0;i<ROM.NLEN;i++ )
 				b.w[i]=d.w[ROM.NLEN+i];
 			b.norm();
 		}
-
-		return b;
 	}
 
 /* return a*b mod m */
@@ -916,4 +915,141 @@ nbs is number of bits processed, and nzs is number of trailing 0s detected */
 		if (comp(u,one)==0) copy(x1);
 		else copy(x2);
 	}
+
+/* Constant time inversion by the divsteps of Bernstein and Yang, "Fast constant-time gcd computation and modular inversion". */
+/* Numbers are held in signed 30-bit limbs, so that 30 divsteps can be applied at a time with a 2x2 matrix of longs */
+	private static final int DSBITS=30;
+	private static final long DSMASK=((long)1<<DSBITS)-1;
+
+/* a as n limbs of DSBITS bits. a must be normalised */
+	private static long[] toDS(BIG a,int n)
+	{
+		long[] r=new long[n];
+		for (int k=0;k<n;k++)
+		{
+			int o=k*DSBITS;
+			int i=o/ROM.BASEBITS;
+			int s=o%ROM.BASEBITS;
+			if (i>=ROM.NLEN) break;
+			long v=(long)a.w[i]>>s;
+			if (i+1<ROM.NLEN) v|=(long)a.w[i+1]<<(ROM.BASEBITS-s);
+			r[k]=v&DSMASK;
+		}
+		return r;
+	}
+
+/* this=a, where a is held as limbs of DSBITS bits, non-negative and less than 2^(NLEN*BASEBITS) */
+	private void fromDS(long[] a)
+	{
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			int o=i*ROM.BASEBITS;
+			long v=0;
+			for (int k=o/DSBITS,s=k*DSBITS-o;s<ROM.BASEBITS && k<a.length;k++,s+=DSBITS)
+				v|=(s<0)?a[k]>>-s:a[k]<<s;
+			w[i]=(int)(v&ROM.MASK);
+		}
+	}
+
+/* a+=m if mask is all ones. Both are normalised */
+	private static void dsadd(long[] a,long[] m,long mask)
+	{
+		int n=a.length;
+		long c=0;
+		for (int i=0;i<n-1;i++)
+		{
+			c+=a[i]+(m[i]&mask);
+			a[i]=c&DSMASK; c>>=DSBITS;
+		}
+		a[n-1]+=c+(m[n-1]&mask);
+	}
+
+/* a=-a if mask is all ones */
+	private static void dsneg(long[] a,long mask)
+	{
+		int n=a.length;
+		long c=0;
+		for (int i=0;i<n-1;i++)
+		{
+			c+=(a[i]^mask)-mask;
+			a[i]=c&DSMASK; c>>=DSBITS;
+		}
+		a[n-1]=((a[n-1]^mask)-mask)+c;
+	}
+
+/* this=1/this mod p, for odd p, in constant time. Unlike invmodp, this need not be less than p */
+	public void ctinvmodp(BIG p)
+	{
+		norm();
+		int d=ROM.NLEN*ROM.BASEBITS;
+		int n=d/DSBITS+2;
+		int steps=(49*d+80)/17+1;   /* enough for any inputs of d bits, by Theorem 11.2 of the paper */
+		long[] m=toDS(p,n);
+		long[] f=toDS(p,n);
+		long[] g=toDS(this,n);
+		long[] a=new long[n];
+		long[] b=new long[n];
+		b[0]=1;
+		long minv=m[0];
+		for (int i=0;i<4;i++) minv*=2-m[0]*minv;
+		long delta=1;
+
+/* f=a*this and g=b*this mod p throughout, and f ends as the gcd 1 or -1 */
+		for (int k=0;k<steps;k+=DSBITS)
+		{
+			long u=1,v=0,q=0,r=1;
+			long fi=f[0],gi=g[0];
+/* each divstep is (delta,f,g)=(1-delta,g,(g-f)/2) if delta>0 and g is odd, and otherwise (1+delta,f,(g+(g&1)f)/2) */
+			for (int i=0;i<DSBITS;i++)
+			{
+				long odd=-(gi&1);
+				long sw=((-delta)>>63)&odd;
+				delta=((delta^sw)-sw)+1;
+				gi+=((fi^sw)-sw)&odd;
+				q+=((u^sw)-sw)&odd;
+				r+=((v^sw)-sw)&odd;
+				fi+=gi&sw; u+=q&sw; v+=r&sw;
+				gi>>=1; u<<=1; v<<=1;
+			}
+
+/* [f,g]=[u,v;q,r][f,g]/2^DSBITS, which is exact */
+			long cf=u*f[0]+v*g[0];
+			long cg=q*f[0]+r*g[0];
+			cf>>=DSBITS; cg>>=DSBITS;
+			for (int i=1;i<n;i++)
+			{
+				cf+=u*f[i]+v*g[i];
+				cg+=q*f[i]+r*g[i];
+				f[i-1]=cf&DSMASK; cf>>=DSBITS;
+				g[i-1]=cg&DSMASK; cg>>=DSBITS;
+			}
+			f[n-1]=cf; g[n-1]=cg;
+
+/* [a,b]=[u,v;q,r][a,b]/2^DSBITS mod p. p is added to a or b if negative, and a multiple of p below 2^DSBITS*p */
+/* is added to make the division exact, which keeps a and b in (-2p,p) */
+			long sa=a[n-1]>>63,sb=b[n-1]>>63;
+			long ma=(u&sa)+(v&sb);
+			long mb=(q&sa)+(r&sb);
+			long ca=u*a[0]+v*b[0];
+			long cb=q*a[0]+r*b[0];
+			ma-=(minv*ca+ma)&DSMASK;
+			mb-=(minv*cb+mb)&DSMASK;
+			ca+=ma*m[0]; cb+=mb*m[0];
+			ca>>=DSBITS; cb>>=DSBITS;
+			for (int i=1;i<n;i++)
+			{
+				ca+=u*a[i]+v*b[i]+ma*m[i];
+				cb+=q*a[i]+r*b[i]+mb*m[i];
+				a[i-1]=ca&DSMASK; ca>>=DSBITS;
+				b[i-1]=cb&DSMASK; cb>>=DSBITS;
+			}
+			a[n-1]=ca; b[n-1]=cb;
+		}
+
+/* 1/this=a*f, brought into [0,p) */
+		dsadd(a,m,a[n-1]>>63);
+		dsneg(a,f[n-1]>>63);
+		dsadd(a,m,a[n-1]>>63);
+		fromDS(a);
+	}
 }
@@ -47,6 +47,25 @@ public class DBIG {
 		for (int i=ROM.NLEN+1;i<ROM.DNLEN;i++) w[i]=0;
 	}
 
+/* set this=0 */
+	public void zero()
+	{
+		for (int i=0;i<ROM.DNLEN;i++)
+			w[i]=0;
+	}
+
+/* copy this=x, as the constructor from a BIG */
+	public void copy(BIG x)
+	{
+		for (int i=0;i<ROM.NLEN-1;i++)
+			w[i]=x.get(i);
+
+		w[ROM.NLEN-1]=x.get(ROM.NLEN-1)&ROM.MASK; /* top word normalized */
+		w[ROM.NLEN]=x.get(ROM.NLEN-1)>>ROM.BASEBITS;
+
+		for (int i=ROM.NLEN+1;i<ROM.DNLEN;i++) w[i]=0;
+	}
+
 /* get and set digits of this */
 	public int get(int i)
 	{
@@ -67,6 +86,11 @@ public class DBIG {
 
 /* normalise this */
 	public void norm() {
+		if (BIG.UNROLLED)
+		{
+			Kernel.dnorm(w);
+			return;
+		}
 		int d,carry=0;
 		for (int i=0;i<ROM.DNLEN-1;i++)
 		{
@@ -271,6 +295,13 @@ public class DBIG {
 	public BIG split(int n)
 	{
 		BIG t=new BIG(0);
+		split(n,t);
+		return t;
+	}
+
+/* split DBIG at position n, higher half into t, keep lower half */
+	public void split(int n,BIG t)
+	{
 		int nw,m=n%ROM.BASEBITS;
 		int carry=w[ROM.DNLEN-1]<<(ROM.BASEBITS-m);
 
@@ -281,6 +312,5 @@ public class DBIG {
 			t.set(i-ROM.NLEN+1,nw);
 		}
 		w[ROM.NLEN-1]&=(((int)1<<m)-1);
-		return t;
 	}
 }
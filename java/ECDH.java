@@ -386,7 +386,7 @@ public final class ECDH {
 			c.copy(vx);
 			c.mod(r);
 			if (c.iszilch()) continue;
-			u.invmodp(r);
+			u.ctinvmodp(r);
 			d.copy(BIG.modmul(s,c,r));
 			d.add(f);
 			d.copy(BIG.modmul(u,d,r));
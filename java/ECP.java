@@ -24,6 +24,7 @@ public final class ECP {
 	private FP y;
 	private FP z;
 	private boolean INF;
+	private static final FP CURVE_B=new FP(new BIG(ROM.CURVE_B));
 
 /* Constructor - set to O */
 	public ECP() {
@@ -215,6 +216,82 @@ public final class ECP {
 		return r;
 	}
 
+/* Shallue-van de Woestijne constants - Z, g(Z), -Z/2, sqrt(-g(Z)(3Z^2+4A)) with even sign and -4g(Z)/(3Z^2+4A), where g is RHS. */
+/* Z is the first of 1,-1,2,-2.. that satisfies the conditions of draft-irtf-cfrg-hash-to-curve. Found on first use */
+	private static final class SvdW
+	{
+		static final FP[] C=svdw();
+	}
+
+	private static FP[] svdw()
+	{
+		for (int k=1;;k++)
+		{
+			for (int s=0;s<2;s++)
+			{
+				FP z=new FP(k);
+				if (s==1) {z.neg(); z.norm();}
+				FP gz=RHS(new FP(z));
+				FP t=new FP(z);
+				t.sqr(); t.imul(3);
+				if (ROM.CURVE_A==-3) {t.sub(new FP(12)); t.norm();}
+				if (gz.iszilch() || t.iszilch()) continue;
+				FP c4=new FP(t);
+				c4.inverse(); c4.mul(gz); c4.imul(4); c4.neg(); c4.norm();
+				if (c4.jacobi()!=1) continue;
+				FP hz=new FP(z);
+				hz.neg(); hz.norm(); hz.div2();
+				if (gz.jacobi()!=1 && RHS(new FP(hz)).jacobi()!=1) continue;
+				FP c3=new FP(gz);
+				c3.mul(t); c3.neg(); c3.norm();
+				c3=c3.sqrt();
+				if (c3.redc().parity()==1) {c3.neg(); c3.norm();}
+				return new FP[] {z,gz,hz,c3,c4};
+			}
+		}
+	}
+
+/* map u to a point by the Shallue-van de Woestijne method, with the same field operations for any u - */
+/* an inverse and three square roots. For WEIERSTRASS curves, and the cofactor is not cleared */
+	public static ECP map2point(FP u)
+	{
+		FP[] C=SvdW.C;
+		FP Z=C[0],c1=C[1],c2=C[2],c3=C[3],c4=C[4];
+		FP one=new FP(1);
+		FP t1=new FP(u);
+		t1.sqr(); t1.mul(c1);
+		FP t2=new FP(one);
+		t2.add(t1); t2.norm();
+		t1.neg(); t1.add(one); t1.norm();
+		FP t3=new FP(t1);
+		t3.mul(t2); t3.inverse();
+		FP t4=new FP(u);
+		t4.mul(t1); t4.mul(t3); t4.mul(c3);
+
+		FP x1=new FP(c2); x1.sub(t4); x1.norm();
+		FP x2=new FP(c2); x2.add(t4); x2.norm();
+		FP x3=new FP(t2);
+		x3.sqr(); x3.mul(t3); x3.sqr(); x3.mul(c4); x3.add(Z); x3.norm();
+
+		FP g1=RHS(x1),g2=RHS(x2),g3=RHS(x3);
+		FP y1=g1.sqrt(),y2=g2.sqrt(),y3=g3.sqrt();
+		FP t=new FP(y1);
+		t.sqr();
+		int e1=t.equals(g1)?1:0;
+		t.copy(y2); t.sqr();
+		int e2=(t.equals(g2)?1:0)&(1-e1);
+		x3.cmove(x1,e1); x3.cmove(x2,e2);
+		y3.cmove(y1,e1); y3.cmove(y2,e2);
+
+/* y takes the sign of u */
+		t.copy(y3); t.neg(); t.norm();
+		y3.cmove(t,u.redc().parity()^y3.redc().parity());
+		ECP P=new ECP();
+		P.x.copy(x3); P.y.copy(y3);
+		P.INF=false;
+		return P;
+	}
+
 /* set (x,y) from two BIGs */
 	public ECP(BIG ix,BIG iy) {
 		x=new FP(ix);
@@ -268,12 +345,15 @@ public final class ECP {
 /* set to affine - from (x,y,z) to (x,y) */
 	public void affine() {
 		if (is_infinity()) return;
-		FP one=new FP(1);
+		FP[] w=Scratch.get().ecp;
+		FP one=w[0];
+		one.one();
 		if (z.equals(one)) return;
 		z.inverse();
 		if (ROM.CURVETYPE==ROM.WEIERSTRASS)
 		{
-			FP z2=new FP(z);
+			FP z2=w[1];
+			z2.copy(z);
 			z2.sqr();
 			x.mul(z2); x.reduce();
 			y.mul(z2);
@@ -378,11 +458,17 @@ public final class ECP {
 				return;
 			}
 
-			FP w1=new FP(x);
-			FP w6=new FP(z);
-			FP w2=new FP(0);
-			FP w3=new FP(x);
-			FP w8=new FP(x);
+			FP[] w=Scratch.get().ecp;
+			FP w1=w[0];
+			FP w6=w[1];
+			FP w2=w[2];
+			FP w3=w[3];
+			FP w8=w[4];
+
+			w1.copy(x);
+			w6.copy(z);
+			w3.copy(x);
+			w8.copy(x);
 
 			if (ROM.CURVE_A==-3)
 			{
@@ -428,10 +514,15 @@ public final class ECP {
 		}
 		if (ROM.CURVETYPE==ROM.EDWARDS)
 		{
-			FP C=new FP(x);
-			FP D=new FP(y);
-			FP H=new FP(z);
-			FP J=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP C=w[0];
+			FP D=w[1];
+			FP H=w[2];
+			FP J=w[3];
+
+			C.copy(x);
+			D.copy(y);
+			H.copy(z);
 
 			x.mul(y); x.add(x);
 			C.sqr();
@@ -453,14 +544,17 @@ public final class ECP {
 		}
 		if (ROM.CURVETYPE==ROM.MONTGOMERY)
 		{
-			FP A=new FP(x);
-			FP B=new FP(x);
-			FP AA=new FP(0);
-			FP BB=new FP(0);
-			FP C=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP A=w[0];
+			FP B=w[1];
+			FP AA=w[2];
+			FP BB=w[3];
+			FP C=w[4];
 
 			if (INF) return;
 
+			A.copy(x);
+			B.copy(x);
 			A.add(z);
 			AA.copy(A); AA.sqr();
 			B.sub(z);
@@ -492,17 +586,21 @@ public final class ECP {
 			if (Q.INF) return;
 
 			boolean aff=false;
-
-			FP one=new FP(1);
+			FP[] w=Scratch.get().ecp;
+			FP one=w[0];
+			one.one();
 			if (Q.z.equals(one)) aff=true;
 
-			FP A,C;
-			FP B=new FP(z);
-			FP D=new FP(z);
+			FP A=w[1];
+			FP B=w[2];
+			FP C=w[3];
+			FP D=w[4];
+			B.copy(z);
+			D.copy(z);
 			if (!aff)
 			{
-				A=new FP(Q.z);
-				C=new FP(Q.z);
+				A.copy(Q.z);
+				C.copy(Q.z);
 
 				A.sqr(); B.sqr();
 				C.mul(A); D.mul(B);
@@ -512,8 +610,8 @@ public final class ECP {
 			}
 			else
 			{
-				A=new FP(x);
-				C=new FP(y);
+				A.copy(x);
+				C.copy(y);
 
 				B.sqr();
 				D.mul(B);
@@ -539,7 +637,8 @@ public final class ECP {
 			if (!aff) z.mul(Q.z);
 			z.mul(B);
 
-			FP e=new FP(B); e.sqr();
+			FP e=w[5];
+			e.copy(B); e.sqr();
 			B.mul(e);
 			A.mul(e);
 
@@ -557,14 +656,20 @@ public final class ECP {
 		}
 		if (ROM.CURVETYPE==ROM.EDWARDS)
 		{
-			FP b=new FP(new BIG(ROM.CURVE_B));
-			FP A=new FP(z);
-			FP B=new FP(0);
-			FP C=new FP(x);
-			FP D=new FP(y);
-			FP E=new FP(0);
-			FP F=new FP(0);
-			FP G=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP b=w[0];
+			FP A=w[1];
+			FP B=w[2];
+			FP C=w[3];
+			FP D=w[4];
+			FP E=w[5];
+			FP F=w[6];
+			FP G=w[7];
+
+			b.copy(CURVE_B);
+			A.copy(z);
+			C.copy(x);
+			D.copy(y);
 		//	FP H=new FP(0);
 		//	FP I=new FP(0);
 
@@ -607,12 +712,18 @@ public final class ECP {
 
 /* Differential Add for Montgomery curves. this+=Q where W is this-Q and is affine. */
 	public void dadd(ECP Q,ECP W) {
-			FP A=new FP(x);
-			FP B=new FP(x);
-			FP C=new FP(Q.x);
-			FP D=new FP(Q.x);
-			FP DA=new FP(0);
-			FP CB=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP A=w[0];
+			FP B=w[1];
+			FP C=w[2];
+			FP D=w[3];
+			FP DA=w[4];
+			FP CB=w[5];
+
+			A.copy(x);
+			B.copy(x);
+			C.copy(Q.x);
+			D.copy(Q.x);
 
 			A.add(z);
 			B.sub(z);
@@ -124,11 +124,14 @@ public final class ECP2 {
 /* set to Affine - (x,y,z) to (x,y) */
 	public void affine() {
 		if (is_infinity()) return;
-		FP2 one=new FP2(1);
+		FP2[] w=Scratch.get().ecp2;
+		FP2 one=w[0];
+		one.one();
 		if (z.equals(one)) return;
 		z.inverse();
 
-		FP2 z2=new FP2(z);
+		FP2 z2=w[1];
+		z2.copy(z);
 		z2.sqr();
 		x.mul(z2); x.reduce();
 		y.mul(z2);
@@ -223,6 +226,77 @@ public final class ECP2 {
 		return r;
 	}
 
+/* Shallue-van de Woestijne constants for the twist, as for ECP - Z, g(Z), -Z/2, sqrt(-3g(Z)Z^2) with even sign and -4g(Z)/(3Z^2) */
+	private static final class SvdW
+	{
+		static final FP2[] C=svdw();
+	}
+
+	private static FP2[] svdw()
+	{
+		for (int k=1;;k++)
+		{
+			for (int s=0;s<2;s++)
+			{
+				FP2 z=new FP2(k);
+				if (s==1) {z.neg(); z.norm();}
+				FP2 gz=RHS(new FP2(z));
+				FP2 t=new FP2(z);
+				t.sqr(); t.imul(3);
+				if (gz.iszilch()) continue;
+				FP2 c4=new FP2(t);
+				c4.inverse(); c4.mul(gz); c4.imul(4); c4.neg(); c4.norm();
+				if (!c4.issquare()) continue;
+				FP2 hz=new FP2(z);
+				hz.neg(); hz.norm(); hz.div2();
+				if (!gz.issquare() && !RHS(new FP2(hz)).issquare()) continue;
+				FP2 c3=new FP2(gz);
+				c3.mul(t); c3.neg(); c3.norm();
+				c3.ctsqrt();
+				if (c3.sgn0()==1) {c3.neg(); c3.norm();}
+				return new FP2[] {z,gz,hz,c3,c4};
+			}
+		}
+	}
+
+/* map u to a point on the twist by the Shallue-van de Woestijne method, with the same field operations for any u. */
+/* The cofactor is not cleared */
+	public static ECP2 map2point(FP2 u)
+	{
+		FP2[] C=SvdW.C;
+		FP2 Z=C[0],c1=C[1],c2=C[2],c3=C[3],c4=C[4];
+		FP2 one=new FP2(1);
+		FP2 t1=new FP2(u);
+		t1.sqr(); t1.mul(c1);
+		FP2 t2=new FP2(one);
+		t2.add(t1); t2.norm();
+		t1.neg(); t1.add(one); t1.norm();
+		FP2 t3=new FP2(t1);
+		t3.mul(t2); t3.inverse();
+		FP2 t4=new FP2(u);
+		t4.mul(t1); t4.mul(t3); t4.mul(c3);
+
+		FP2 x1=new FP2(c2); x1.sub(t4); x1.norm();
+		FP2 x2=new FP2(c2); x2.add(t4); x2.norm();
+		FP2 x3=new FP2(t2);
+		x3.sqr(); x3.mul(t3); x3.sqr(); x3.mul(c4); x3.add(Z); x3.norm();
+
+		int e1=RHS(new FP2(x1)).issquare()?1:0;
+		int e2=(RHS(new FP2(x2)).issquare()?1:0)&(1-e1);
+		x3.cmove(x1,e1); x3.cmove(x2,e2);
+		FP2 y=RHS(x3);
+		y.ctsqrt();
+
+/* y takes the sign of u */
+		FP2 t=new FP2(y);
+		t.neg(); t.norm();
+		y.cmove(t,u.sgn0()^y.sgn0());
+		ECP2 P=new ECP2();
+		P.x.copy(x3); P.y.copy(y);
+		P.INF=false;
+		return P;
+	}
+
 /* construct this from (x,y) - but set to O if not on curve */
 	public ECP2(FP2 ix,FP2 iy) {
 		x=new FP2(ix);
@@ -258,10 +332,15 @@ public final class ECP2 {
 			return -1;
 		}
 
-		FP2 w1=new FP2(x);
-		FP2 w2=new FP2(0);
-		FP2 w3=new FP2(x);
-		FP2 w8=new FP2(x);
+		FP2[] w=Scratch.get().ecp2;
+		FP2 w1=w[0];
+		FP2 w2=w[1];
+		FP2 w3=w[2];
+		FP2 w8=w[3];
+
+		w1.copy(x);
+		w3.copy(x);
+		w8.copy(x);
 
 		w1.sqr();
 		w8.copy(w1);
@@ -307,13 +386,17 @@ public final class ECP2 {
 
 		if (Q.z.isunity()) aff=true;
 
-		FP2 A,C;
-		FP2 B=new FP2(z);
-		FP2 D=new FP2(z);
+		FP2[] w=Scratch.get().ecp2;
+		FP2 A=w[0];
+		FP2 B=w[1];
+		FP2 C=w[2];
+		FP2 D=w[3];
+		B.copy(z);
+		D.copy(z);
 		if (!aff)
 		{
-			A=new FP2(Q.z);
-			C=new FP2(Q.z);
+			A.copy(Q.z);
+			C.copy(Q.z);
 
 			A.sqr(); B.sqr();
 			C.mul(A); D.mul(B);
@@ -323,8 +406,8 @@ public final class ECP2 {
 		}
 		else
 		{
-			A=new FP2(x);
-			C=new FP2(y);
+			A.copy(x);
+			C.copy(y);
 
 			B.sqr();
 			D.mul(B);
@@ -350,7 +433,8 @@ public final class ECP2 {
 		if (!aff) z.mul(Q.z);
 		z.mul(B);
 
-		FP2 e=new FP2(B); e.sqr();
+		FP2 e=w[4];
+		e.copy(B); e.sqr();
 		B.mul(e);
 		A.mul(e);
 
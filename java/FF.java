@@ -20,6 +20,10 @@ under the License.
 /* Java Large Finite Field arithmetic */
 /* AMCL mod p functions */
 
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
 public final class FF {
 	private final BIG[] v;
 	private final int length;
@@ -29,6 +33,7 @@ public final class FF {
 	private static final int P_OMASK=((int)(-1)<<(P_MBITS%ROM.BASEBITS));
 	private static final int P_FEXCESS=((int)1<<(ROM.BASEBITS*ROM.NLEN-P_MBITS));
 	private static final int P_TBITS=(P_MBITS%ROM.BASEBITS);
+	private static final int SKW=5;   /* window of skpow for large exponents */
 
 	public int P_EXCESS()
 	{
@@ -330,16 +335,6 @@ public final class FF {
 		}
 	}
 
-/* in-place swapping using xor - side channel resistant - lengths must be the same */
-	private static void cswap(FF a,FF b,int d)
-	{
-		for (int i=0;i<a.length;i++)
-		{
-		//	BIG.cswap(a.v[i],b.v[i],d);
-			a.v[i].cswap(b.v[i],d);
-		}
-	}
-
 /* z=x*y, t is workspace */
 	private void karmul(int vp,FF x,int xp,FF y,int yp,FF t,int tp,int n)
 	{
@@ -454,7 +449,7 @@ public final class FF {
 		karmul_lower(0,x,0,y,0,t,0,n);
 	}
 
-/* Set b=b mod c */
+/* Set b=b mod c. c is shifted in a copy, so that a modulus may be shared between threads */
 	public void mod(FF c)
 	{
 		int k=0;
@@ -462,18 +457,20 @@ public final class FF {
 		norm();
 		if (comp(this,c)<0)
 			return;
+		FF m=new FF(c.length);
+		m.copy(c);
 		do
 		{
-			c.shl();
+			m.shl();
 			k++;
-		} while (comp(this,c)>=0);
+		} while (comp(this,m)>=0);
 
 		while (k>0)
 		{
-			c.shr();
-			if (comp(this,c)>=0)
+			m.shr();
+			if (comp(this,m)>=0)
 			{
-				sub(c);
+				sub(m);
 				norm();
 			}
 			k--;
@@ -501,6 +498,17 @@ public final class FF {
 
 	}
 
+/* reduce the top half of this, of length 2n, mod b of length n, so that this<b.2^(256.n) as dmod needs */
+	private void topmod(FF b)
+	{
+		int n=b.length;
+		FF h=new FF(n);
+		norm();
+		h.sducopy(this);
+		h.mod(b);
+		for (int i=0;i<n;i++) v[n+i].copy(h.v[i]);
+	}
+
 /* Set r=this mod b */
 /* this is of length - 2*n */
 /* r,b is of length - n */
@@ -512,7 +520,7 @@ public final class FF {
 		FF r=new FF(n);
 
 		x.copy(this);
-		x.norm();
+		x.topmod(b);
 		m.dsucopy(b); k=256*n;
 
 		while (k>0)
@@ -532,6 +540,19 @@ public final class FF {
 		return r;
 	}
 
+/* r=this mod b as dmod(b), by two Montgomery reductions rather than a division */
+/* ND=b.invmod2m() and R2=b.montR2() */
+	public FF dmod(FF b,FF ND,FF R2)
+	{
+		FF x=new FF(2*b.length);
+		x.copy(this);
+		x.topmod(b);
+		FF r=x.reduce(b,ND);
+		r.modmul(R2,b,ND);
+		r.mod(b);
+		return r;
+	}
+
 /* Set return=1/this mod p. Binary method - a<p on entry */
 
 	public void invmodp(FF p)
@@ -617,6 +638,28 @@ public final class FF {
 		copy(d.dmod(m));
 	}
 
+/* nresidue mod m with ND=m.invmod2m() and R2=m.montR2(), by a Montgomery multiplication. By division if R2 is null */
+	public void nres(FF m,FF ND,FF R2)
+	{
+		if (R2==null)
+		{
+			nres(m);
+			return;
+		}
+		mod(m);
+		modmul(R2,m,ND);
+	}
+
+/* R2=2^(512.n) mod this, for nres and dmod without a division. Made once for a modulus that is used many times */
+	public FF montR2()
+	{
+		FF r=new FF(length);
+		r.one();
+		r.nres(this);
+		r.nres(this);
+		return r;
+	}
+
 	public void redc(FF m,FF ND)
 	{
 		int n=m.length;
@@ -633,8 +676,8 @@ public final class FF {
 			v[i].zero();
 	}
 
-	/* U=1/a mod 2^m - Arazi & Qi */
-	private FF invmod2m()
+	/* U=1/a mod 2^m - Arazi & Qi. The Montgomery constant ND of modulus a */
+	public FF invmod2m()
 	{
 		int i,n=length;
 
@@ -690,6 +733,31 @@ public final class FF {
 		copy(d.dmod(p));
 	}
 
+	/* generate random x as randomnum(p,rng), with ND=p.invmod2m() and R2=p.montR2() */
+	public void randomnum(FF p,RAND rng,FF ND,FF R2)
+	{
+		int n=length;
+		FF d=new FF(2*n);
+
+		for (int i=0;i<2*n;i++)
+		{
+			d.v[i].copy(BIG.random(rng));
+		}
+		copy(d.dmod(p,ND,R2));
+	}
+
+	/* this mod m, for a small m */
+	public int modint(int m)
+	{
+		byte[] b=new byte[length*ROM.MODBYTES];
+		long r=0;
+		norm();
+		toBytes(b);
+		for (int i=0;i<b.length;i++)
+			r=((r<<8)+(b[i]&0xff))%m;
+		return (int)r;
+	}
+
 	/* this*=y mod p */
 	public void modmul(FF y,FF p,FF nd)
 	{
@@ -709,78 +777,93 @@ public final class FF {
 		copy(d.reduce(p,nd));
 	}
 
-	/* this=this^e mod p using side-channel resistant Montgomery Ladder, for large e */
+	/* this=this^e mod p, side-channel resistant, for large e */
 	public void skpow(FF e,FF p)
 	{
-		int i,b,n=p.length;
-		FF R0=new FF(n);
-		FF R1=new FF(n);
-		FF ND=p.invmod2m();
+		skpow(e,p,p.invmod2m(),null);
+	}
 
-		mod(p);
-		R0.one();
-		R1.copy(this);
-		R0.nres(p);
-		R1.nres(p);
+	/* as skpow, with ND=p.invmod2m() and R2=p.montR2() made once for p. R2 may be null */
+	public void skpow(FF e,FF p,FF ND,FF R2)
+	{
+		int nb=8*ROM.MODBYTES*p.length;
+		int[] d=new int[(nb+SKW-1)/SKW];
+		for (int i=0;i<nb;i++)
+			d[d.length-1-i/SKW]|=e.v[i/256].bit(i%256)<<(i%SKW);
+		skpow(d,SKW,p,ND,R2);
+	}
 
-		for (i=8*ROM.MODBYTES*n-1;i>=0;i--)
-		{
-			b=e.v[i/256].bit(i%256);
-			copy(R0);
-			modmul(R1,p,ND);
+	/* this =this^e mod p, side-channel resistant, for short e */
+	public void skpow(BIG e,FF p)
+	{
+		skpow(e,p,p.invmod2m(),null);
+	}
 
-			cswap(R0,R1,b);
-			R0.modsqr(p,ND);
+	/* as skpow, with ND=p.invmod2m() and R2=p.montR2() made once for p. R2 may be null */
+	public void skpow(BIG e,FF p,FF ND,FF R2)
+	{
+		int nb=8*ROM.MODBYTES;
+		int[] d=new int[(nb+3)/4];
+		for (int i=0;i<nb;i++)
+			d[d.length-1-i/4]|=e.bit(i)<<(i%4);
+		skpow(d,4,p,ND,R2);
+	}
 
-			R1.copy(this);
-			cswap(R0,R1,b);
+	/* this=this^e mod p by fixed windows of w bits, where d are the windows of e, most significant first. The same */
+	/* multiplications are done for any e, and every entry of the table is read for each window, so that neither */
+	/* timing nor the cache lines touched depend on e */
+	private void skpow(int[] d,int w,FF p,FF ND,FF R2)
+	{
+		int i,j,k,n=p.length;
+		FF[] T=new FF[1<<w];
+		FF t=new FF(n);
 
+		mod(p);
+		T[0]=new FF(n); T[0].one(); T[0].nres(p,ND,R2);
+		T[1]=new FF(n); T[1].copy(this); T[1].nres(p,ND,R2);
+		for (j=2;j<(1<<w);j++)
+		{
+			T[j]=new FF(n);
+			T[j].copy(T[j-1]);
+			T[j].modmul(T[1],p,ND);
 		}
 
-		copy(R0);
+		select(T,d[0]);
+		for (i=1;i<d.length;i++)
+		{
+			for (k=0;k<w;k++) modsqr(p,ND);
+			t.select(T,d[i]);
+			modmul(t,p,ND);
+		}
 		redc(p,ND);
 	}
 
-	/* this =this^e mod p using side-channel resistant Montgomery Ladder, for short e */
-	public void skpow(BIG e,FF p)
+	/* this=T[k], reading every entry of T */
+	private void select(FF[] T,int k)
 	{
-		int i,b,n=p.length;
-		FF R0=new FF(n);
-		FF R1=new FF(n);
-		FF ND=p.invmod2m();
-
-		mod(p);
-		R0.one();
-		R1.copy(this);
-		R0.nres(p);
-		R1.nres(p);
-
-		for (i=8*ROM.MODBYTES-1;i>=0;i--)
+		for (int j=0;j<T.length;j++)
 		{
-			b=e.bit(i);
-			copy(R0);
-			modmul(R1,p,ND);
-
-			cswap(R0,R1,b);
-			R0.modsqr(p,ND);
-
-			R1.copy(this);
-			cswap(R0,R1,b);
+			int b=((j^k)-1)>>>31;
+			for (int i=0;i<length;i++)
+				v[i].cmove(T[j].v[i],b);
 		}
-		copy(R0);
-		redc(p,ND);
 	}
 
 	/* raise to an integer power - right-to-left method */
 	public void power(int e,FF p)
+	{
+		power(e,p,p.invmod2m(),null);
+	}
+
+	/* as power, with ND=p.invmod2m() and R2=p.montR2() made once for p. R2 may be null */
+	public void power(int e,FF p,FF ND,FF R2)
 	{
 		int n=p.length;
 		boolean f=true;
 		FF w=new FF(n);
-		FF ND=p.invmod2m();
 
 		w.copy(this);
-		w.nres(p);
+		w.nres(p,ND,R2);
 
 		if (e==2)
 		{
@@ -804,15 +887,20 @@ public final class FF {
 
 	/* this=this^e mod p, faster but not side channel resistant */
 	public void pow(FF e,FF p)
+	{
+		pow(e,p,p.invmod2m(),null);
+	}
+
+	/* as pow, with ND=p.invmod2m() and R2=p.montR2() made once for p. R2 may be null */
+	public void pow(FF e,FF p,FF ND,FF R2)
 	{
 		int i,b,n=p.length;
 		FF w=new FF(n);
-		FF ND=p.invmod2m();
 
 		w.copy(this);
 		one();
-		nres(p);
-		w.nres(p);
+		nres(p,ND,R2);
+		w.nres(p,ND,R2);
 		for (i=8*ROM.MODBYTES*n-1;i>=0;i--)
 		{
 			modsqr(p,ND);
@@ -896,20 +984,25 @@ public final class FF {
 	/* Miller-Rabin test for primality. Slow. */
 	public static boolean prime(FF p,RAND rng)
 	{
-		int i,j,s=0,n=p.length;
-		boolean loop;
-		FF d=new FF(n);
-		FF x=new FF(n);
-		FF unity=new FF(n);
-		FF nm1=new FF(n);
-
 		int sf=4849845; /* 3*5*.. *19 */
 		p.norm();
 
 		if (p.cfactor(sf)) return false;
-		unity.one();
+		return millerRabin(p,rng,false);
+	}
+
+	/* Miller-Rabin test of p with 10 random bases, without the check for small factors in prime. The Montgomery */
+	/* constants of p are made once for all bases. Most composites fail on the first base, and if par is set the */
+	/* other 9 are then tried at once as ForkJoin tasks - in the pool of the calling thread, or else the common pool */
+	public static boolean millerRabin(final FF p,RAND rng,boolean par)
+	{
+		int i,s=0,n=p.length;
+		final FF d=new FF(n);
+		final FF nm1=new FF(n);
+
+		p.norm();
 		nm1.copy(p);
-		nm1.sub(unity);
+		nm1.dec(1);
 		nm1.norm();
 		d.copy(nm1);
 
@@ -919,24 +1012,61 @@ public final class FF {
 			s++;
 		}
 		if (s==0) return false;
-		for (i=0;i<10;i++)
+		final int sf=s;
+		final FF ND=p.invmod2m();
+		final FF R2=p.montR2();
+
+		FF x=new FF(n);
+		x.randomnum(p,rng,ND,R2);
+		if (!witness(x,p,d,s,nm1,ND,R2)) return false;
+
+		if (!par)
 		{
-			x.randomnum(p,rng);
-			x.pow(d,p);
-			if (comp(x,unity)==0 || comp(x,nm1)==0) continue;
-			loop=false;
-			for (j=1;j<s;j++)
+			for (i=1;i<10;i++)
 			{
-				x.power(2,p);
-				if (comp(x,unity)==0) return false;
-				if (comp(x,nm1)==0) {loop=true; break;}
+				x.randomnum(p,rng,ND,R2);
+				if (!witness(x,p,d,s,nm1,ND,R2)) return false;
 			}
-			if (loop) continue;
-			return false;
+			return true;
 		}
+
+		ArrayList<RecursiveTask<Boolean>> rounds=new ArrayList<RecursiveTask<Boolean>>();
+		for (i=1;i<10;i++)
+		{ /* bases are drawn here, as rng is not shared between threads */
+			final FF w=new FF(n);
+			w.randomnum(p,rng,ND,R2);
+			rounds.add(new RecursiveTask<Boolean>()
+			{
+				protected Boolean compute()
+				{
+					return witness(w,p,d,sf,nm1,ND,R2);
+				}
+			});
+		}
+		ForkJoinTask.invokeAll(rounds);
+		for (RecursiveTask<Boolean> r : rounds)
+			if (!r.join()) return false;
 		return true;
 	}
 
+	/* one Miller-Rabin round with base x, where p-1=d.2^s. false if x shows that p is composite. x is destroyed */
+	private static boolean witness(FF x,FF p,FF d,int s,FF nm1,FF ND,FF R2)
+	{
+		int n=p.length;
+		FF unity=new FF(n);
+
+		unity.one();
+		x.pow(d,p,ND,R2);
+		if (comp(x,unity)==0 || comp(x,nm1)==0) return true;
+		for (int j=1;j<s;j++)
+		{
+			x.power(2,p,ND,R2);
+			if (comp(x,unity)==0) return false;
+			if (comp(x,nm1)==0) return true;
+		}
+		return false;
+	}
+
 
 //	public static final int[][] P ={{0x1670957,0x1568CD3C,0x2595E5,0xEED4F38,0x1FC9A971,0x14EF7E62,0xA503883,0x9E1E05E,0xBF59E3},{0x1844C908,0x1B44A798,0x3A0B1E7,0xD1B5B4E,0x1836046F,0x87E94F9,0x1D34C537,0xF7183B0,0x46D07},{0x17813331,0x19E28A90,0x1473A4D6,0x1CACD01F,0x1EEA8838,0xAF2AE29,0x1F85292A,0x1632585E,0xD945E5},{0x919F5EF,0x1567B39F,0x19F6AD11,0x16CE47CF,0x9B36EB1,0x35B7D3,0x483B28C,0xCBEFA27,0xB5FC21}};
 /*
@@ -23,6 +23,87 @@ under the License.
 public final class FP {
 	private final BIG x;
 	private static BIG p=new BIG(ROM.Modulus);
+	private static final BIG R2=montR2();
+	private static final BIG R3=montR3();
+	private static final int[] SQRTW=sqrtWindow(1);
+	private static final int[] ISQRTW=sqrtWindow(-3);
+
+/* R^2 mod Modulus, where R=2^(NLEN*BASEBITS). Multiplying by it converts to n-residue form */
+	private static BIG montR2()
+	{
+		DBIG d=new DBIG(1);
+		d.shl(ROM.NLEN*ROM.BASEBITS);
+		BIG r=d.mod(p);
+		d=new DBIG(r);
+		d.shl(ROM.NLEN*ROM.BASEBITS);
+		return d.mod(p);
+	}
+
+/* R^3 mod Modulus. Multiplying the inverse of an n-residue by it gives the n-residue of the inverse */
+	private static BIG montR3()
+	{
+		DBIG d=new DBIG(R2);
+		d.shl(ROM.NLEN*ROM.BASEBITS);
+		return d.mod(p);
+	}
+
+/* the fixed exponents of sqrt and invsqrt as sliding windows. (p-5)/8 if p=5 mod 8, and otherwise (p+k)/4 */
+/* - (p+1)/4 gives sqrt directly, and (p-3)/4 both sqrt and 1/sqrt, at the cost of more multiplications for some p */
+	private static int[] sqrtWindow(int k)
+	{
+		BIG e=new BIG(p);
+		if (ROM.MOD8==5)
+		{
+			e.dec(5); e.norm(); e.shr(3);
+		}
+		else
+		{
+			if (k>0) e.inc(k);
+			else e.dec(-k);
+			e.norm(); e.shr(2);
+		}
+		return window(e);
+	}
+
+/* left-to-right sliding window of the fixed exponent e. Each entry squares entry>>5 times and then multiplies */
+/* by the odd power entry&31, or by nothing if that is 0. The width, up to 5 bits, is the one with fewest multiplications */
+	private static int[] window(BIG e)
+	{
+		int[] best=null;
+		int least=0;
+		for (int b=1;b<=5;b++)
+		{
+			int[] w=new int[e.nbits()+1];
+			int n=0,s=0,top=1,m=0;
+			int i=e.nbits()-1;
+			while (i>=0)
+			{
+				if (e.bit(i)==0)
+				{
+					s++; i--;
+					continue;
+				}
+				int j=i-b+1;
+				if (j<0) j=0;
+				while (e.bit(j)==0) j++;
+				int d=0;
+				for (int k=i;k>=j;k--) d=2*d+e.bit(k);
+				if (d>top) top=d;
+				w[n++]=((s+i-j+1)<<5)|d;
+				s=0; i=j-1;
+			}
+			if (s>0) w[n++]=s<<5;
+			for (i=1;i<n;i++) if ((w[i]&31)!=0) m++;
+			if (top>1) m+=(top+1)/2;
+			if (best==null || m<least)
+			{
+				best=new int[n];
+				System.arraycopy(w,0,best,0,n);
+				least=m;
+			}
+		}
+		return best;
+	}
 
 /* Constructors */
 	public FP(int a)
@@ -65,9 +146,10 @@ public final class FP {
 	{
 		if (ROM.MODTYPE!=ROM.PSEUDO_MERSENNE)
 		{
-			DBIG d=new DBIG(x);
-			d.shl(ROM.NLEN*ROM.BASEBITS);
-			x.copy(d.mod(p));
+			Scratch s=Scratch.get();
+			s.m.copy(R2);
+			BIG.mul(x,s.m,s.d);
+			BIG.mod(s.d,x);
 		}
 	}
 
@@ -76,8 +158,11 @@ public final class FP {
 	{
 		if (ROM.MODTYPE!=ROM.PSEUDO_MERSENNE)
 		{
-			DBIG d=new DBIG(x);
-			return BIG.mod(d);
+			DBIG d=Scratch.get().d;
+			BIG r=new BIG(0);
+			d.copy(x);
+			BIG.mod(d,r);
+			return r;
 		}
 		else
 		{
@@ -92,6 +177,13 @@ public final class FP {
 		return x.iszilch();
 	}
 
+/* 1 if this=0, or else 0, without a branch on the value of this */
+	int ctzilch()
+	{
+		reduce();
+		return x.ctzilch();
+	}
+
 /* copy from FP b */
 	public void copy(FP b)
 	{
@@ -136,8 +228,9 @@ public final class FP {
 
 		if ((ea+1)*(eb+1)+1>=ROM.FEXCESS) reduce();
 
-		DBIG d=BIG.mul(x,b.x);
-		x.copy(BIG.mod(d));
+		DBIG d=Scratch.get().d;
+		BIG.mul(x,b.x,d);
+		BIG.mod(d,x);
 	}
 
 /* this*=c mod Modulus, where c is a small int */
@@ -171,13 +264,13 @@ public final class FP {
 /* this*=this mod Modulus */
 	public void sqr()
 	{
-		DBIG d;
+		DBIG d=Scratch.get().d;
 		int ea=BIG.EXCESS(x);
 		if ((ea+1)*(ea+1)+1>=ROM.FEXCESS)
 			reduce();
 
-		d=BIG.sqr(x);
-		x.copy(BIG.mod(d));
+		BIG.sqr(x,d);
+		BIG.mod(d,x);
 	}
 
 /* this+=b */
@@ -190,7 +283,8 @@ public final class FP {
 	public void neg()
 	{
 		int sb,ov;
-		BIG m=new BIG(p);
+		BIG m=Scratch.get().m;
+		m.copy(p);
 
 		norm();
 
@@ -206,7 +300,8 @@ public final class FP {
 /* this-=b */
 	public void sub(FP b)
 	{
-		FP n=new FP(b);
+		FP n=Scratch.get().n;
+		n.copy(b);
 		n.neg();
 		this.add(n);
 	}
@@ -225,13 +320,16 @@ public final class FP {
 		}
 	}
 
-/* this=1/this mod Modulus */
+/* this=1/this mod Modulus, in constant time and without leaving n-residue form */
 	public void inverse()
 	{
-		BIG r=redc();
-		r.invmodp(p);
-		x.copy(r);
-		nres();
+		x.ctinvmodp(p);
+		if (ROM.MODTYPE!=ROM.PSEUDO_MERSENNE)
+		{
+			DBIG d=Scratch.get().d;
+			BIG.mul(x,R3,d);
+			BIG.mod(d,x);
+		}
 	}
 
 /* return TRUE if this==a */
@@ -243,10 +341,36 @@ public final class FP {
 		return false;
 	}
 
-/* reduce this mod Modulus */
+/* reduce this mod Modulus. BIG.mod shifts its argument, so a copy of p is used */
 	public void reduce()
 	{
-		x.mod(p);
+		BIG m=Scratch.get().m;
+		m.copy(p);
+		x.mod(m);
+	}
+
+/* return this^e, for a fixed exponent e given as a window. The squarings and multiplications depend only on e */
+	private FP pow(int[] w)
+	{
+		int top=1;
+		for (int i=0;i<w.length;i++)
+			if ((w[i]&31)>top) top=w[i]&31;
+		FP[] t=new FP[(top+1)/2];
+		t[0]=new FP(this);
+		FP x2=new FP(this);
+		if (top>1) x2.sqr();
+		for (int i=1;i<t.length;i++)
+		{
+			t[i]=new FP(t[i-1]);
+			t[i].mul(x2);
+		}
+		FP r=new FP(t[(w[0]&31)>>1]);
+		for (int i=1;i<w.length;i++)
+		{
+			for (int j=w[i]>>5;j>0;j--) r.sqr();
+			if ((w[i]&31)!=0) r.mul(t[(w[i]&31)>>1]);
+		}
+		return r;
 	}
 
 /* return this^e mod Modulus */
@@ -265,7 +389,7 @@ public final class FP {
 			if (e.iszilch()) break;
 			m.sqr();
 		}
-		r.x.mod(p);
+		r.reduce();
 		return r;
 	}
 
@@ -273,31 +397,66 @@ public final class FP {
 	public FP sqrt()
 	{
 		reduce();
-		BIG b=new BIG(p);
 		if (ROM.MOD8==5)
 		{
-			b.dec(5); b.norm(); b.shr(3);
-			FP i=new FP(this); i.x.shl(1);
-			FP v=i.pow(b);
-			i.mul(v); i.mul(v);
-			i.x.dec(1);
-			FP r=new FP(this);
-			r.mul(v); r.mul(i);
-			r.reduce();
+			FP i=new FP();
+			FP r=new FP();
+			invsqrt(i,r);
 			return r;
 		}
+		FP r=pow(SQRTW);
+		r.reduce();
+		return r;
+	}
+
+/* s=sqrt(this) and i=1/sqrt(this), from the same power of this. Returns false if this is not a square, */
+/* when s and i are meaningless. 1/this is then i^2. A zero this gives zero s and i */
+	public boolean invsqrt(FP i,FP s)
+	{
+		return ctinvsqrt(i,s)==1;
+	}
+
+/* as invsqrt, but 1 if this is a square and 0 if not, without a branch on the value of this */
+	int ctinvsqrt(FP i,FP s)
+	{
+		reduce();
+		if (ROM.MOD8==5)
+		{
+/* Atkin - v=(2a)^((p-5)/8), t=2a.v^2, s=a.v(t-1), and 1/a=16.a^3.v^8 */
+			FP a2=new FP(this); a2.add(this); a2.norm();
+			FP v=a2.pow(SQRTW);
+			FP t=new FP(a2);
+			t.mul(v); t.mul(v);
+			t.sub(new FP(1)); t.norm();
+			s.copy(this);
+			s.mul(v); s.mul(t);
+			i.copy(a2); i.sqr(); i.mul(a2);
+			v.sqr(); v.sqr(); v.sqr();
+			i.mul(v); i.add(i); i.norm();
+			i.mul(s);
+		}
 		else
 		{
-			b.inc(1); b.norm(); b.shr(2);
-			return pow(b);
+/* h=a^((p-3)/4), s=a.h, and 1/s=h */
+			FP h=pow(ISQRTW);
+			s.copy(this); s.mul(h);
+			i.copy(h);
 		}
+		s.reduce();
+		i.reduce();
+		FP t=new FP(s);
+		t.sqr();
+		t.sub(this); t.norm();
+		return t.ctzilch();
 	}
 
 /* return jacobi symbol (this/Modulus) */
 	public int jacobi()
 	{
 		BIG w=redc();
-		return w.jacobi(p);
+		BIG m=Scratch.get().m;
+		m.copy(p);
+		return w.jacobi(m);
 	}
 /*
 	public static void main(String[] args) {
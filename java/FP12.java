@@ -45,7 +45,8 @@ public final class FP12 {
 	}
 /* test x==1 ? */
 	public boolean isunity() {
-		FP4 one=new FP4(1);
+		FP4 one=Scratch.get().fp4[0];
+		one.one();
 		return (a.equals(one) && b.iszilch() && c.iszilch());
 	}
 /* return 1 if x==y, else 0 */
@@ -121,10 +122,15 @@ public final class FP12 {
 /* Granger-Scott Unitary Squaring */
 	public void usqr()
 	{
-		FP4 A=new FP4(a);
-		FP4 B=new FP4(c);
-		FP4 C=new FP4(b);
-		FP4 D=new FP4(0);
+		FP4[] w=Scratch.get().fp4;
+		FP4 A=w[0];
+		FP4 B=w[1];
+		FP4 C=w[2];
+		FP4 D=w[3];
+
+		A.copy(a);
+		B.copy(c);
+		C.copy(b);
 
 		a.sqr();
 		D.copy(a); D.add(a);
@@ -161,10 +167,16 @@ public final class FP12 {
 /* Chung-Hasan SQR2 method from http://cacr.uwaterloo.ca/techreports/2006/cacr2006-24.pdf */
 	public void sqr()
 	{
-		FP4 A=new FP4(a);
-		FP4 B=new FP4(b);
-		FP4 C=new FP4(c);
-		FP4 D=new FP4(a);
+		FP4[] w=Scratch.get().fp4;
+		FP4 A=w[0];
+		FP4 B=w[1];
+		FP4 C=w[2];
+		FP4 D=w[3];
+
+		A.copy(a);
+		B.copy(b);
+		C.copy(c);
+		D.copy(a);
 
 		A.sqr();
 		B.mul(c);
@@ -200,12 +212,18 @@ public final class FP12 {
 /* FP12 full multiplication this=this*y */
 	public void mul(FP12 y)
 	{
-		FP4 z0=new FP4(a);
-		FP4 z1=new FP4(0);
-		FP4 z2=new FP4(b);
-		FP4 z3=new FP4(0);
-		FP4 t0=new FP4(a);
-		FP4 t1=new FP4(y.a);
+		FP4[] w=Scratch.get().fp4;
+		FP4 z0=w[0];
+		FP4 z1=w[1];
+		FP4 z2=w[2];
+		FP4 z3=w[3];
+		FP4 t0=w[4];
+		FP4 t1=w[5];
+
+		z0.copy(a);
+		z2.copy(b);
+		t0.copy(a);
+		t1.copy(y.a);
 
 		z0.mul(y.a);
 		z2.mul(y.b);
@@ -255,11 +273,17 @@ public final class FP12 {
 /* Special case of multiplication arises from special form of ATE pairing line function */
 	public void smul(FP12 y)
 	{
-		FP4 z0=new FP4(a);
-		FP4 z2=new FP4(b);
-		FP4 z3=new FP4(b);
-		FP4 t0=new FP4(0);
-		FP4 t1=new FP4(y.a);
+		FP4[] w=Scratch.get().fp4;
+		FP4 z0=w[0];
+		FP4 z2=w[1];
+		FP4 z3=w[2];
+		FP4 t0=w[3];
+		FP4 t1=w[4];
+
+		z0.copy(a);
+		z2.copy(b);
+		z3.copy(b);
+		t1.copy(y.a);
 
 		z0.mul(y.a);
 		z2.pmul(y.b.real());
@@ -293,10 +317,15 @@ public final class FP12 {
 /* this=1/this */
 	public void inverse()
 	{
-		FP4 f0=new FP4(a);
-		FP4 f1=new FP4(b);
-		FP4 f2=new FP4(a);
-		FP4 f3=new FP4(0);
+		FP4[] w=Scratch.get().fp4;
+		FP4 f0=w[0];
+		FP4 f1=w[1];
+		FP4 f2=w[2];
+		FP4 f3=w[3];
+
+		f0.copy(a);
+		f1.copy(b);
+		f2.copy(a);
 
 		norm();
 		f0.sqr();
@@ -330,8 +359,12 @@ public final class FP12 {
 /* this=this^p using Frobenius */
 	public void frob(FP2 f)
 	{
-		FP2 f2=new FP2(f);
-		FP2 f3=new FP2(f);
+		FP2[] w=Scratch.get().fp12;
+		FP2 f2=w[0];
+		FP2 f3=w[1];
+
+		f2.copy(f);
+		f3.copy(f);
 
 		f2.sqr();
 		f3.mul(f2);
@@ -53,7 +53,8 @@ public final class FP2 {
 
 /* test this=1 ? */
 	public boolean isunity() {
-		FP one=new FP(1);
+		FP one=Scratch.get().fp[0];
+		one.one();
 		return (a.equals(one) && b.iszilch());
 	}
 
@@ -63,6 +64,12 @@ public final class FP2 {
 	}
 
 /* Constructors */
+	FP2()
+	{
+		a=new FP();
+		b=new FP();
+	}
+
 	public FP2(int c)
 	{
 		a=new FP(c);
@@ -136,9 +143,11 @@ public final class FP2 {
 	public void neg()
 	{
 		norm();
-		FP m=new FP(a);
-		FP t=new FP(0);
+		FP[] w=Scratch.get().fp;
+		FP m=w[0];
+		FP t=w[1];
 
+		m.copy(a);
 		m.add(b);
 		m.neg();
 		m.norm();
@@ -164,9 +173,8 @@ public final class FP2 {
 /* this-=a */
 	public void sub(FP2 x)
 	{
-		FP2 m=new FP2(x);
-		m.neg();
-		add(m);
+		a.sub(x.a);
+		b.sub(x.b);
 	}
 
 /* this*=s, where s is an FP */
@@ -188,9 +196,14 @@ public final class FP2 {
 	{
 		norm();
 
-		FP w1=new FP(a);
-		FP w3=new FP(a);
-		FP mb=new FP(b);
+		FP[] w=Scratch.get().fp;
+		FP w1=w[0];
+		FP w3=w[1];
+		FP mb=w[2];
+
+		w1.copy(a);
+		w3.copy(a);
+		mb.copy(b);
 		w3.mul(b);
 		w1.add(b);
 		mb.neg();
@@ -205,10 +218,15 @@ public final class FP2 {
 	{
 		norm();  /* This is needed here as {a,b} is not normed before additions */
 
-		FP w1=new FP(a);
-		FP w2=new FP(b);
-		FP w5=new FP(a);
-		FP mw=new FP(0);
+		FP[] w=Scratch.get().fp;
+		FP w1=w[0];
+		FP w2=w[1];
+		FP w5=w[2];
+		FP mw=w[3];
+
+		w1.copy(a);
+		w2.copy(b);
+		w5.copy(a);
 
 		w1.mul(y.a);  // w1=a*y.a  - this norms w1 and y.a, NOT a
 		w2.mul(y.b);  // w2=b*y.b  - this norms w2 and y.b, NOT b
@@ -241,11 +259,12 @@ public final class FP2 {
 			w2.copy(a); w2.sub(w1); w2.div2();
 			if (w2.jacobi()!=1) { zero(); return false; }
 		}
-		w2=w2.sqrt();
-		a.copy(w2);
-		w2.add(w2);
-		w2.inverse();
-		b.mul(w2);
+/* b/(2.sqrt(w2)) with the 1/sqrt(w2) that comes with sqrt(w2), rather than an inverse */
+		FP i=new FP();
+		w2.invsqrt(i,w1);
+		a.copy(w1);
+		i.div2();
+		b.mul(i);
 		return true;
 	}
 
@@ -260,13 +279,69 @@ public final class FP2 {
 		return ("["+a.toRawString()+","+b.toRawString()+"]");
 	}
 
+/* the norm a^2+b^2 of this */
+	private FP norm2()
+	{
+		FP n=new FP(a);
+		FP t=new FP(b);
+		n.sqr(); t.sqr();
+		n.add(t); n.norm();
+		return n;
+	}
+
+/* test this is a square, or zero, with the same field operations for any this - this is a square if its norm is */
+	public boolean issquare()
+	{
+		FP n=norm2();
+		FP s=n.sqrt();
+		s.sqr();
+		return s.equals(n);
+	}
+
+/* this=sqrt(this) with the same field operations for any this, which must be a square. With w=(a+sqrt(a^2+b^2))/2 */
+/* and h=w^((p-3)/4), sqrt(this) is wh+i.bh/2 if w is a square, and otherwise bk/2-i.kw, where k=(-w)^((p-3)/4)=+/-h */
+	public void ctsqrt()
+	{
+		FP s=norm2().sqrt();
+		FP w=new FP(a);
+		w.add(s); w.norm(); w.div2();
+		w.cmove(a,w.ctzilch());
+		FP h=new FP();
+		FP r=new FP();
+		int d=1-w.ctinvsqrt(h,r);
+		FP k=new FP(h);
+		if (ROM.MOD8==7) k.neg();
+		FP hb=new FP(b);
+		hb.div2();
+		FP ib=new FP(hb);
+		ib.mul(h);
+		hb.mul(k);
+		k.mul(w); k.neg(); k.norm();
+		r.cmove(hb,d);
+		ib.cmove(k,d);
+		a.copy(r);
+		b.copy(ib);
+		norm();
+	}
+
+/* the sign of this, as in draft-irtf-cfrg-hash-to-curve - the parity of a, or of b if a is zero */
+	public int sgn0()
+	{
+		BIG x=a.redc();
+		int z=x.iszilch()?1:0;
+		return x.parity()|(z&b.redc().parity());
+	}
+
 /* this=1/this */
 	public void inverse()
 	{
 		norm();
-		FP w1=new FP(a);
-		FP w2=new FP(b);
+		FP[] w=Scratch.get().fp;
+		FP w1=w[0];
+		FP w2=w[1];
 
+		w1.copy(a);
+		w2.copy(b);
 		w1.sqr();
 		w2.sqr();
 		w1.add(w2);
@@ -287,7 +362,8 @@ public final class FP2 {
 	public void times_i()
 	{
 	//	a.norm();
-		FP z=new FP(a);
+		FP z=Scratch.get().fp[0];
+		z.copy(a);
 		a.copy(b); a.neg();
 		b.copy(z);
 	}
@@ -297,23 +373,21 @@ public final class FP2 {
 	public void mul_ip()
 	{
 		norm();
-		FP2 t=new FP2(this);
-		FP z=new FP(a);
-		a.copy(b);
-		a.neg();
-		b.copy(z);
-		add(t);
+		FP z=Scratch.get().fp[0];
+		z.copy(a);
+		a.sub(b);
+		b.add(z);
 		norm();
 	}
 
 /* w/=(1+sqrt(-1)) */
 	public void div_ip()
 	{
-		FP2 t=new FP2(0);
+		FP z=Scratch.get().fp[0];
 		norm();
-		t.a.copy(a); t.a.add(b);
-		t.b.copy(b); t.b.sub(a);
-		copy(t);
+		z.copy(a);
+		a.add(b);
+		b.sub(z);
 		div2();
 	}
 /*
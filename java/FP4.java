@@ -43,7 +43,8 @@ public final class FP4 {
 	}
 /* test this==1 ? */
 	public boolean isunity() {
-		FP2 one=new FP2(1);
+		FP2 one=Scratch.get().fp2[0];
+		one.one();
 		return (a.equals(one) && b.iszilch());
 	}
 
@@ -73,6 +74,12 @@ public final class FP4 {
 		return (a.equals(x.a) && b.equals(x.b));
 	}
 /* constructors */
+	FP4()
+	{
+		a=new FP2();
+		b=new FP2();
+	}
+
 	public FP4(int c)
 	{
 		a=new FP2(c);
@@ -117,8 +124,10 @@ public final class FP4 {
 /* set this=-this */
 	public void neg()
 	{
-		FP2 m=new FP2(a);
-		FP2 t=new FP2(0);
+		FP2[] w=Scratch.get().fp2;
+		FP2 m=w[0];
+		FP2 t=w[1];
+		m.copy(a);
 		m.add(b);
 		m.neg();
 		m.norm();
@@ -146,9 +155,8 @@ public final class FP4 {
 /* this-=x */
 	public void sub(FP4 x)
 	{
-		FP4 m=new FP4(x);
-		m.neg();
-		add(m);
+		a.sub(x.a);
+		b.sub(x.b);
 	}
 
 /* this*=s where s is FP2 */
@@ -168,10 +176,14 @@ public final class FP4 {
 	{
 		norm();
 
-		FP2 t1=new FP2(a);
-		FP2 t2=new FP2(b);
-		FP2 t3=new FP2(a);
+		FP2[] w=Scratch.get().fp2;
+		FP2 t1=w[0];
+		FP2 t2=w[1];
+		FP2 t3=w[2];
 
+		t1.copy(a);
+		t2.copy(b);
+		t3.copy(a);
 		t3.mul(b);
 		t1.add(b);
 		t2.mul_ip();
@@ -197,10 +209,15 @@ public final class FP4 {
 	{
 		norm();
 
-		FP2 t1=new FP2(a);
-		FP2 t2=new FP2(b);
-		FP2 t3=new FP2(0);
-		FP2 t4=new FP2(b);
+		FP2[] w=Scratch.get().fp2;
+		FP2 t1=w[0];
+		FP2 t2=w[1];
+		FP2 t3=w[2];
+		FP2 t4=w[3];
+
+		t1.copy(a);
+		t2.copy(b);
+		t4.copy(b);
 
 		t1.mul(y.a);
 		t2.mul(y.b);
@@ -236,9 +253,12 @@ public final class FP4 {
 	{
 		norm();
 
-		FP2 t1=new FP2(a);
-		FP2 t2=new FP2(b);
+		FP2[] w=Scratch.get().fp2;
+		FP2 t1=w[0];
+		FP2 t2=w[1];
 
+		t1.copy(a);
+		t2.copy(b);
 		t1.sqr();
 		t2.sqr();
 		t2.mul_ip();
@@ -254,8 +274,11 @@ public final class FP4 {
 	public void times_i()
 	{
 		norm();
-		FP2 s=new FP2(b);
-		FP2 t=new FP2(b);
+		FP2[] w=Scratch.get().fp2;
+		FP2 s=w[0];
+		FP2 t=w[1];
+		s.copy(b);
+		t.copy(b);
 		s.times_i();
 		t.add(s);
 		t.norm();
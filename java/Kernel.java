@@ -0,0 +1,221 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Limb kernels for 32-bit words, NLEN=9 and BASEBITS=29, unrolled. Generated by config/KernelGen.java - do not edit */
+
+final class Kernel
+{
+	static final int NLEN=9;
+	static final int BASEBITS=29;
+	static final int MASK=0x1fffffff;
+
+	private Kernel() {}
+
+/* z=x*y by columns, with the carry taken from one column to the next */
+	static void mul(int[] x,int[] y,int[] z)
+	{
+		int x0=x[0],x1=x[1],x2=x[2],x3=x[3],x4=x[4],x5=x[5],x6=x[6],x7=x[7],x8=x[8];
+		int y0=y[0],y1=y[1],y2=y[2],y3=y[3],y4=y[4],y5=y[5],y6=y[6],y7=y[7],y8=y[8];
+		long t,co;
+		t=(long)x0*y0; z[0]=(int)t&MASK; co=t>>29;
+		t=(long)x1*y0+(long)x0*y1+co; z[1]=(int)t&MASK; co=t>>29;
+		t=(long)x2*y0+(long)x1*y1+(long)x0*y2+co; z[2]=(int)t&MASK; co=t>>29;
+		t=(long)x3*y0+(long)x2*y1+(long)x1*y2+(long)x0*y3+co; z[3]=(int)t&MASK; co=t>>29;
+		t=(long)x4*y0+(long)x3*y1+(long)x2*y2+(long)x1*y3+(long)x0*y4+co; z[4]=(int)t&MASK; co=t>>29;
+		t=(long)x5*y0+(long)x4*y1+(long)x3*y2+(long)x2*y3+(long)x1*y4+(long)x0*y5+co; z[5]=(int)t&MASK; co=t>>29;
+		t=(long)x6*y0+(long)x5*y1+(long)x4*y2+(long)x3*y3+(long)x2*y4+(long)x1*y5+(long)x0*y6+co; z[6]=(int)t&MASK; co=t>>29;
+		t=(long)x7*y0+(long)x6*y1+(long)x5*y2+(long)x4*y3+(long)x3*y4+(long)x2*y5+(long)x1*y6+(long)x0*y7+co; z[7]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y0+(long)x7*y1+(long)x6*y2+(long)x5*y3+(long)x4*y4+(long)x3*y5+(long)x2*y6+(long)x1*y7+(long)x0*y8+co; z[8]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y1+(long)x7*y2+(long)x6*y3+(long)x5*y4+(long)x4*y5+(long)x3*y6+(long)x2*y7+(long)x1*y8+co; z[9]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y2+(long)x7*y3+(long)x6*y4+(long)x5*y5+(long)x4*y6+(long)x3*y7+(long)x2*y8+co; z[10]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y3+(long)x7*y4+(long)x6*y5+(long)x5*y6+(long)x4*y7+(long)x3*y8+co; z[11]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y4+(long)x7*y5+(long)x6*y6+(long)x5*y7+(long)x4*y8+co; z[12]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y5+(long)x7*y6+(long)x6*y7+(long)x5*y8+co; z[13]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y6+(long)x7*y7+(long)x6*y8+co; z[14]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y7+(long)x7*y8+co; z[15]=(int)t&MASK; co=t>>29;
+		t=(long)x8*y8+co; z[16]=(int)t&MASK; co=t>>29;
+		z[17]=(int)co;
+	}
+
+/* z=x^2 by columns, the cross products of each column summed once and doubled */
+	static void sqr(int[] x,int[] z)
+	{
+		int x0=x[0],x1=x[1],x2=x[2],x3=x[3],x4=x[4],x5=x[5],x6=x[6],x7=x[7],x8=x[8];
+		long t,co;
+		t=(long)x0*x0; z[0]=(int)t&MASK; co=t>>29;
+		t=(long)x1*x0; t+=t; t+=co; z[1]=(int)t&MASK; co=t>>29;
+		t=(long)x2*x0; t+=t; t+=(long)x1*x1; t+=co; z[2]=(int)t&MASK; co=t>>29;
+		t=(long)x3*x0+(long)x2*x1; t+=t; t+=co; z[3]=(int)t&MASK; co=t>>29;
+		t=(long)x4*x0+(long)x3*x1; t+=t; t+=(long)x2*x2; t+=co; z[4]=(int)t&MASK; co=t>>29;
+		t=(long)x5*x0+(long)x4*x1+(long)x3*x2; t+=t; t+=co; z[5]=(int)t&MASK; co=t>>29;
+		t=(long)x6*x0+(long)x5*x1+(long)x4*x2; t+=t; t+=(long)x3*x3; t+=co; z[6]=(int)t&MASK; co=t>>29;
+		t=(long)x7*x0+(long)x6*x1+(long)x5*x2+(long)x4*x3; t+=t; t+=co; z[7]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x0+(long)x7*x1+(long)x6*x2+(long)x5*x3; t+=t; t+=(long)x4*x4; t+=co; z[8]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x1+(long)x7*x2+(long)x6*x3+(long)x5*x4; t+=t; t+=co; z[9]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x2+(long)x7*x3+(long)x6*x4; t+=t; t+=(long)x5*x5; t+=co; z[10]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x3+(long)x7*x4+(long)x6*x5; t+=t; t+=co; z[11]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x4+(long)x7*x5; t+=t; t+=(long)x6*x6; t+=co; z[12]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x5+(long)x7*x6; t+=t; t+=co; z[13]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x6; t+=t; t+=(long)x7*x7; t+=co; z[14]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x7; t+=t; t+=co; z[15]=(int)t&MASK; co=t>>29;
+		t=(long)x8*x8+co; z[16]=(int)t&MASK; co=t>>29;
+		z[17]=(int)co;
+	}
+
+/* normalise w - as BIG.norm */
+	static int norm(int[] w)
+	{
+		int t=w[0];
+		w[0]=t&MASK; t=w[1]+(t>>29);
+		w[1]=t&MASK; t=w[2]+(t>>29);
+		w[2]=t&MASK; t=w[3]+(t>>29);
+		w[3]=t&MASK; t=w[4]+(t>>29);
+		w[4]=t&MASK; t=w[5]+(t>>29);
+		w[5]=t&MASK; t=w[6]+(t>>29);
+		w[6]=t&MASK; t=w[7]+(t>>29);
+		w[7]=t&MASK; t=w[8]+(t>>29);
+		w[8]=t;
+		return t>>((8*ROM.MODBYTES)%ROM.BASEBITS);
+	}
+
+/* normalise w - as DBIG.norm */
+	static void dnorm(int[] w)
+	{
+		int t=w[0];
+		w[0]=t&MASK; t=w[1]+(t>>29);
+		w[1]=t&MASK; t=w[2]+(t>>29);
+		w[2]=t&MASK; t=w[3]+(t>>29);
+		w[3]=t&MASK; t=w[4]+(t>>29);
+		w[4]=t&MASK; t=w[5]+(t>>29);
+		w[5]=t&MASK; t=w[6]+(t>>29);
+		w[6]=t&MASK; t=w[7]+(t>>29);
+		w[7]=t&MASK; t=w[8]+(t>>29);
+		w[8]=t&MASK; t=w[9]+(t>>29);
+		w[9]=t&MASK; t=w[10]+(t>>29);
+		w[10]=t&MASK; t=w[11]+(t>>29);
+		w[11]=t&MASK; t=w[12]+(t>>29);
+		w[12]=t&MASK; t=w[13]+(t>>29);
+		w[13]=t&MASK; t=w[14]+(t>>29);
+		w[14]=t&MASK; t=w[15]+(t>>29);
+		w[15]=t&MASK; t=w[16]+(t>>29);
+		w[16]=t&MASK; t=w[17]+(t>>29);
+		w[17]=t;
+	}
+
+/* b=d reduced by Montgomery's method, for moduli of type NOT_SPECIAL - as BIG.mod(DBIG). d is unchanged */
+	static void monty(int[] d,int[] b)
+	{
+		int z0=d[0],z1=d[1],z2=d[2],z3=d[3],z4=d[4],z5=d[5],z6=d[6],z7=d[7],z8=d[8],z9=d[9],z10=d[10],z11=d[11],z12=d[12],z13=d[13],z14=d[14],z15=d[15],z16=d[16],z17=d[17];
+		int p0=ROM.Modulus[0],p1=ROM.Modulus[1],p2=ROM.Modulus[2],p3=ROM.Modulus[3],p4=ROM.Modulus[4],p5=ROM.Modulus[5],p6=ROM.Modulus[6],p7=ROM.Modulus[7],p8=ROM.Modulus[8];
+		long t,sum=z0;
+		z0=((int)sum*ROM.MConst)&MASK; sum+=(long)z0*p0; sum=z1+(sum>>29);
+		sum+=(long)z0*p1; z1=((int)sum*ROM.MConst)&MASK; sum+=(long)z1*p0; sum=z2+(sum>>29);
+		sum+=(long)z0*p2; sum+=(long)z1*p1; z2=((int)sum*ROM.MConst)&MASK; sum+=(long)z2*p0; sum=z3+(sum>>29);
+		sum+=(long)z0*p3; sum+=(long)z1*p2; sum+=(long)z2*p1; z3=((int)sum*ROM.MConst)&MASK; sum+=(long)z3*p0; sum=z4+(sum>>29);
+		sum+=(long)z0*p4; sum+=(long)z1*p3; sum+=(long)z2*p2; sum+=(long)z3*p1; z4=((int)sum*ROM.MConst)&MASK; sum+=(long)z4*p0; sum=z5+(sum>>29);
+		sum+=(long)z0*p5; sum+=(long)z1*p4; sum+=(long)z2*p3; sum+=(long)z3*p2; sum+=(long)z4*p1; z5=((int)sum*ROM.MConst)&MASK; sum+=(long)z5*p0; sum=z6+(sum>>29);
+		sum+=(long)z0*p6; sum+=(long)z1*p5; sum+=(long)z2*p4; sum+=(long)z3*p3; sum+=(long)z4*p2; sum+=(long)z5*p1; z6=((int)sum*ROM.MConst)&MASK; sum+=(long)z6*p0; sum=z7+(sum>>29);
+		sum+=(long)z0*p7; sum+=(long)z1*p6; sum+=(long)z2*p5; sum+=(long)z3*p4; sum+=(long)z4*p3; sum+=(long)z5*p2; sum+=(long)z6*p1; z7=((int)sum*ROM.MConst)&MASK; sum+=(long)z7*p0; sum=z8+(sum>>29);
+		sum+=(long)z0*p8; sum+=(long)z1*p7; sum+=(long)z2*p6; sum+=(long)z3*p5; sum+=(long)z4*p4; sum+=(long)z5*p3; sum+=(long)z6*p2; sum+=(long)z7*p1; z8=((int)sum*ROM.MConst)&MASK; sum+=(long)z8*p0; sum=z9+(sum>>29);
+		sum+=(long)z1*p8; sum+=(long)z2*p7; sum+=(long)z3*p6; sum+=(long)z4*p5; sum+=(long)z5*p4; sum+=(long)z6*p3; sum+=(long)z7*p2; sum+=(long)z8*p1; z9=(int)sum&MASK; sum=z10+(sum>>29);
+		sum+=(long)z2*p8; sum+=(long)z3*p7; sum+=(long)z4*p6; sum+=(long)z5*p5; sum+=(long)z6*p4; sum+=(long)z7*p3; sum+=(long)z8*p2; z10=(int)sum&MASK; sum=z11+(sum>>29);
+		sum+=(long)z3*p8; sum+=(long)z4*p7; sum+=(long)z5*p6; sum+=(long)z6*p5; sum+=(long)z7*p4; sum+=(long)z8*p3; z11=(int)sum&MASK; sum=z12+(sum>>29);
+		sum+=(long)z4*p8; sum+=(long)z5*p7; sum+=(long)z6*p6; sum+=(long)z7*p5; sum+=(long)z8*p4; z12=(int)sum&MASK; sum=z13+(sum>>29);
+		sum+=(long)z5*p8; sum+=(long)z6*p7; sum+=(long)z7*p6; sum+=(long)z8*p5; z13=(int)sum&MASK; sum=z14+(sum>>29);
+		sum+=(long)z6*p8; sum+=(long)z7*p7; sum+=(long)z8*p6; z14=(int)sum&MASK; sum=z15+(sum>>29);
+		sum+=(long)z7*p8; sum+=(long)z8*p7; z15=(int)sum&MASK; sum=z16+(sum>>29);
+		sum+=(long)z8*p8; z16=(int)sum&MASK; sum=z17+(sum>>29); z17=(int)sum&MASK;
+		t=z9;
+		b[0]=(int)t&MASK; t=z10+(t>>29);
+		b[1]=(int)t&MASK; t=z11+(t>>29);
+		b[2]=(int)t&MASK; t=z12+(t>>29);
+		b[3]=(int)t&MASK; t=z13+(t>>29);
+		b[4]=(int)t&MASK; t=z14+(t>>29);
+		b[5]=(int)t&MASK; t=z15+(t>>29);
+		b[6]=(int)t&MASK; t=z16+(t>>29);
+		b[7]=(int)t&MASK; t=z17+(t>>29);
+		b[8]=(int)t;
+	}
+
+/* b=d reduced for moduli of type MONTGOMERY_FRIENDLY - as BIG.mod(DBIG). d is unchanged */
+	static void mfred(int[] d,int[] b)
+	{
+		int z0=d[0],z1=d[1],z2=d[2],z3=d[3],z4=d[4],z5=d[5],z6=d[6],z7=d[7],z8=d[8],z9=d[9],z10=d[10],z11=d[11],z12=d[12],z13=d[13],z14=d[14],z15=d[15],z16=d[16],z17=d[17];
+		int c=ROM.MConst-1;
+		long t;
+		t=(long)z0*c+z0+z8; z8=(int)t&MASK; z9+=(int)(t>>29);
+		t=(long)z1*c+z1+z9; z9=(int)t&MASK; z10+=(int)(t>>29);
+		t=(long)z2*c+z2+z10; z10=(int)t&MASK; z11+=(int)(t>>29);
+		t=(long)z3*c+z3+z11; z11=(int)t&MASK; z12+=(int)(t>>29);
+		t=(long)z4*c+z4+z12; z12=(int)t&MASK; z13+=(int)(t>>29);
+		t=(long)z5*c+z5+z13; z13=(int)t&MASK; z14+=(int)(t>>29);
+		t=(long)z6*c+z6+z14; z14=(int)t&MASK; z15+=(int)(t>>29);
+		t=(long)z7*c+z7+z15; z15=(int)t&MASK; z16+=(int)(t>>29);
+		t=(long)z8*c+z8+z16; z16=(int)t&MASK; z17+=(int)(t>>29);
+		t=z9;
+		b[0]=(int)t&MASK; t=z10+(t>>29);
+		b[1]=(int)t&MASK; t=z11+(t>>29);
+		b[2]=(int)t&MASK; t=z12+(t>>29);
+		b[3]=(int)t&MASK; t=z13+(t>>29);
+		b[4]=(int)t&MASK; t=z14+(t>>29);
+		b[5]=(int)t&MASK; t=z15+(t>>29);
+		b[6]=(int)t&MASK; t=z16+(t>>29);
+		b[7]=(int)t&MASK; t=z17+(t>>29);
+		b[8]=(int)t;
+	}
+
+/* b=d reduced for moduli of type PSEUDO_MERSENNE - as BIG.mod(DBIG). d is unchanged */
+	static void pmred(int[] d,int[] b)
+	{
+		int z0=d[0],z1=d[1],z2=d[2],z3=d[3],z4=d[4],z5=d[5],z6=d[6],z7=d[7],z8=d[8],z9=d[9],z10=d[10],z11=d[11],z12=d[12],z13=d[13],z14=d[14],z15=d[15],z16=d[16],z17=d[17];
+		int c=ROM.MConst;
+		int t0,t1,t2,t3,t4,t5,t6,t7,t8,v,tw;
+		long p;
+		t0=(z8>>ROM.TBITS)|((z9<<(29-ROM.TBITS))&MASK);
+		t1=(z9>>ROM.TBITS)|((z10<<(29-ROM.TBITS))&MASK);
+		t2=(z10>>ROM.TBITS)|((z11<<(29-ROM.TBITS))&MASK);
+		t3=(z11>>ROM.TBITS)|((z12<<(29-ROM.TBITS))&MASK);
+		t4=(z12>>ROM.TBITS)|((z13<<(29-ROM.TBITS))&MASK);
+		t5=(z13>>ROM.TBITS)|((z14<<(29-ROM.TBITS))&MASK);
+		t6=(z14>>ROM.TBITS)|((z15<<(29-ROM.TBITS))&MASK);
+		t7=(z15>>ROM.TBITS)|((z16<<(29-ROM.TBITS))&MASK);
+		t8=(z16>>ROM.TBITS)|(z17<<(29-ROM.TBITS));
+		p=(long)t0*c; t0=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t1*c+v; t1=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t2*c+v; t2=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t3*c+v; t3=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t4*c+v; t4=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t5*c+v; t5=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t6*c+v; t6=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t7*c+v; t7=(int)p&MASK; v=(int)(p>>29);
+		p=(long)t8*c+v; t8=(int)p&MASK; v=(int)(p>>29);
+		tw=t8; t8&=ROM.TMASK; t0+=c*((tw>>ROM.TBITS)+(v<<(29-ROM.TBITS)));
+		z8&=ROM.TMASK;
+		int s=z0+t0;
+		b[0]=s&MASK; s=z1+t1+(s>>29);
+		b[1]=s&MASK; s=z2+t2+(s>>29);
+		b[2]=s&MASK; s=z3+t3+(s>>29);
+		b[3]=s&MASK; s=z4+t4+(s>>29);
+		b[4]=s&MASK; s=z5+t5+(s>>29);
+		b[5]=s&MASK; s=z6+t6+(s>>29);
+		b[6]=s&MASK; s=z7+t7+(s>>29);
+		b[7]=s&MASK; s=z8+t8+(s>>29);
+		b[8]=s;
+	}
+}
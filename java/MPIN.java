@@ -38,6 +38,19 @@ public class MPIN
 	public static final int TS=10;         /* 10 for 4 digit PIN, 14 for 6-digit PIN - 2^TS/TS approx = sqrt(MAXPIN) */
 	public static final int TRAP=200;      /* 200 for 4 digit PIN, 2000 for 6-digit PIN  - approx 2*sqrt(MAXPIN) */
 
+/* true to hash identities to the curve with the fixed cost Shallue-van de Woestijne map, rather than by try-and-increment */
+/* Set with -Damcl.mpin.swmap=true and fixed once MPIN is loaded - secrets and permits made with one map do not work with the other */
+	public static final boolean SWMAP=Boolean.getBoolean("amcl.mpin.swmap");
+
+/* optional cache of the points of identities for SERVER_1, GET_CLIENT_PERMIT and GET_CLIENT_SECRET */
+	private static volatile IDCache idCache;
+
+/* use c to cache the points of identities, or no cache if c is null. Off by default */
+	public static void setIDCache(IDCache c)
+	{
+		idCache=c;
+	}
+
 /* Hash number (optional) and string to point on curve */
 
 	public static byte[] hashit(int n,byte[] ID)
@@ -50,10 +63,17 @@ public class MPIN
 	}
 
 	public static ECP mapit(byte[] h)
+	{
+		return mapit(h,SWMAP);
+	}
+
+/* h to G1 with the Shallue-van de Woestijne map if sw is set, and otherwise by try-and-increment */
+	public static ECP mapit(byte[] h,boolean sw)
 	{
 		BIG q=new BIG(ROM.Modulus);
 		BIG x=BIG.fromBytes(h);
 		x.mod(q);
+		if (sw) return ECP.map2point(new FP(x));
 		ECP P;
 		while (true)
 		{
@@ -66,6 +86,12 @@ public class MPIN
 
 /* needed for SOK */
 	public static ECP2 mapit2(byte[] h)
+	{
+		return mapit2(h,SWMAP);
+	}
+
+/* h to G2 with the Shallue-van de Woestijne map if sw is set, and otherwise by try-and-increment */
+	public static ECP2 mapit2(byte[] h,boolean sw)
 	{
 		BIG q=new BIG(ROM.Modulus);
 		BIG x=BIG.fromBytes(h);
@@ -73,7 +99,13 @@ public class MPIN
 		FP2 X;
 		ECP2 Q,T,K;
 		x.mod(q);
-		while (true)
+		if (sw)
+		{ /* both coordinates of u from h */
+			BIG y=BIG.fromBytes(hashit(1,h));
+			y.mod(q);
+			Q=ECP2.map2point(new FP2(y,x));
+		}
+		else while (true)
 		{
 			X=new FP2(one,x);
 			Q=new ECP2(X);
@@ -86,8 +118,7 @@ public class MPIN
 		X=new FP2(Fra,Frb);
 		x=new BIG(ROM.CURVE_Bnx);
 
-		T=new ECP2(); T.copy(Q);
-		T.mul(x); T.neg();
+		T=Q.mul(x); T.neg();
 		K=new ECP2(); K.copy(T);
 		K.dbl(); K.add(T); K.affine();
 
@@ -397,14 +428,18 @@ public class MPIN
 /* CID is hashed externally */
 	public static int GET_CLIENT_SECRET(byte[] S,byte[] CID,byte[] CST)
 	{
+		IDCache c=idCache;
+		if (c!=null) return GET_G1_MULTIPLE(null,0,S,c.point(CID,0),CST);
 		return GET_G1_MULTIPLE(null,1,S,CID,CST);
 	}
 
 /* Time Permit CTT=S*(date|H(CID)) where S is master secret */
 	public static int GET_CLIENT_PERMIT(int date,byte[] S,byte[] CID,byte[] CTT)
 	{
-		byte[] h=hashit(date,CID);
-		ECP P=mapit(h);
+		IDCache c=idCache;
+		ECP P;
+		if (c!=null && date!=0) P=ECP.fromBytes(c.point(CID,date));
+		else P=mapit(hashit(date,CID));   /* the cache keeps mapit(CID) under date 0 */
 
 		BIG s=BIG.fromBytes(S);
 		PAIR.G1mul(P,s).toBytes(CTT);
@@ -415,6 +450,13 @@ public class MPIN
 	public static void SERVER_1(int date,byte[] CID,byte[] HID,byte[] HTID)
 	{
 		byte[] h=hashit(0,CID);
+		IDCache c=idCache;
+		if (c!=null)
+		{
+			if (date!=0) c.server(h,date,HID,HTID);
+			else System.arraycopy(c.point(h,0),0,HID,0,2*EFS+1);
+			return;
+		}
 		ECP R,P=mapit(h);
 
 		if (date!=0)
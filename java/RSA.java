@@ -19,9 +19,18 @@ under the License.
 
 /* RSA API high-level functions  */
 
+import java.util.IdentityHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+
 final class rsa_private_key
 {
     public FF p,q,dp,dq,c;
+    public FF pND,qND,pR2,qR2; /* Montgomery constants of p and q - see PRIVATE_KEY_PRECOMPUTE */
 
 	public rsa_private_key(int n)
 	{
@@ -31,12 +40,23 @@ final class rsa_private_key
 		dq=new FF(n);
 		c=new FF(n);
 	}
+
+/* a key that shares p, q, dp, dq and c with another */
+	rsa_private_key(FF p,FF q,FF dp,FF dq,FF c)
+	{
+		this.p=p;
+		this.q=q;
+		this.dp=dp;
+		this.dq=dq;
+		this.c=c;
+	}
 }
 
 final class rsa_public_key
 {
     public int e;
     public FF n;
+    public FF nND,nR2;         /* Montgomery constants of n - see PUBLIC_KEY_PRECOMPUTE */
 
 	public rsa_public_key(int m)
 	{
@@ -49,43 +69,109 @@ public final class RSA {
 
 	public static final int RFS=ROM.MODBYTES*ROM.FFLEN;
 
-/* generate an RSA key pair */
+	private static final int[] SIEVE=sieve(8192);   /* odd primes below 8192, for the search for p and q */
 
-	public static void KEY_PAIR(RAND rng,int e,rsa_private_key PRIV,rsa_public_key PUB)
-	{ /* IEEE1363 A16.11/A16.12 more or less */
+/* the odd primes below m */
+	private static int[] sieve(int m)
+	{
+		boolean[] c=new boolean[m];
+		int i,j,k=0;
+		for (i=3;i*i<m;i+=2)
+			if (!c[i]) for (j=i*i;j<m;j+=2*i) c[j]=true;
+		for (i=3;i<m;i+=2) if (!c[i]) k++;
+		int[] P=new int[k];
+		for (i=3,k=0;i<m;i+=2) if (!c[i]) P[k++]=i;
+		return P;
+	}
 
-		int n=PUB.n.getlen()/2;
-		FF t = new FF(n);
+/* set p to a random prime =3 mod 4, with p-1 coprime to e. From a random start, candidates are stepped by 4 */
+/* and their remainders by SIEVE with them, so that only those with no small factor get a Miller-Rabin test */
+	private static void genprime(RAND rng,int e,FF p,boolean par)
+	{
+		int i,n=p.getlen();
+		int[] r=new int[SIEVE.length];
 		FF p1=new FF(n);
-		FF q1=new FF(n);
 
 		for (;;)
 		{
-
-			PRIV.p.random(rng);
-			while (PRIV.p.lastbits(2)!=3) PRIV.p.inc(1);
-			while (!FF.prime(PRIV.p,rng)) PRIV.p.inc(4);
-
-			p1.copy(PRIV.p);
+			p.random(rng);
+			while (p.lastbits(2)!=3) p.inc(1);
+			for (i=0;i<SIEVE.length;i++) r[i]=p.modint(SIEVE[i]);
+
+			for (;;)
+			{
+				for (i=0;i<SIEVE.length;i++)
+					if (r[i]==0) break;
+				if (i==SIEVE.length && FF.millerRabin(p,rng,par)) break;
+				p.inc(4);
+				for (i=0;i<SIEVE.length;i++)
+					r[i]=(r[i]+4)%SIEVE[i];
+			}
+
+			p1.copy(p);
 			p1.dec(1);
 
 			if (p1.cfactor(e)) continue;
 			break;
 		}
+	}
 
-		for (;;)
-		{
-			PRIV.q.random(rng);
-			while (PRIV.q.lastbits(2)!=3) PRIV.q.inc(1);
-			while (!FF.prime(PRIV.q,rng)) PRIV.q.inc(4);
+/* generate an RSA key pair */
 
-			q1.copy(PRIV.q);
-			q1.dec(1);
+	public static void KEY_PAIR(RAND rng,int e,rsa_private_key PRIV,rsa_public_key PUB)
+	{ /* IEEE1363 A16.11/A16.12 more or less */
+		genprime(rng,e,PRIV.p,false);
+		genprime(rng,e,PRIV.q,false);
+		KEY_PAIR(e,PRIV,PUB);
+	}
 
-			if (q1.cfactor(e)) continue;
+/* generate an RSA key pair as KEY_PAIR(rng,e,PRIV,PUB), with the searches for p and q, and the Miller-Rabin */
+/* rounds of each candidate that passes its first, run at once on pool. q is found with a second generator */
+/* seeded from rng, so the key differs from that of KEY_PAIR(rng,e,PRIV,PUB) */
+	public static void KEY_PAIR(final RAND rng,final int e,final rsa_private_key PRIV,rsa_public_key PUB,ForkJoinPool pool)
+	{
+		final RAND qrng=new RAND();
+		byte[] S=new byte[128];
+		for (int i=0;i<S.length;i++) S[i]=(byte)rng.getByte();
+		qrng.clean();
+		qrng.seed(S.length,S);
+		for (int i=0;i<S.length;i++) S[i]=0;
+
+		pool.invoke(new RecursiveAction()
+		{
+			protected void compute()
+			{
+				invokeAll(new RecursiveAction()
+				{
+					protected void compute()
+					{
+						genprime(rng,e,PRIV.p,true);
+					}
+				},new RecursiveAction()
+				{
+					protected void compute()
+					{
+						genprime(qrng,e,PRIV.q,true);
+					}
+				});
+			}
+		});
+		qrng.clean();
+		KEY_PAIR(e,PRIV,PUB);
+	}
 
-			break;
-		}
+/* the rest of the key pair, from primes p and q */
+	private static void KEY_PAIR(int e,rsa_private_key PRIV,rsa_public_key PUB)
+	{
+		int n=PUB.n.getlen()/2;
+		FF t=new FF(n);
+		FF p1=new FF(n);
+		FF q1=new FF(n);
+
+		p1.copy(PRIV.p);
+		p1.dec(1);
+		q1.copy(PRIV.q);
+		q1.dec(1);
 
 		PUB.n=FF.mul(PRIV.p,PRIV.q);
 		PUB.e=e;
@@ -107,9 +193,28 @@ public final class RSA {
 		PRIV.c.copy(PRIV.p);
 		PRIV.c.invmodp(PRIV.q);
 
+		PRIVATE_KEY_PRECOMPUTE(PRIV);
+		PUBLIC_KEY_PRECOMPUTE(PUB);
 		return;
 	}
 
+/* make the Montgomery constants of p and q once, for every DECRYPT with this key. KEY_PAIR does this, */
+/* and a key that is loaded some other way should be passed here once p and q are set */
+	public static void PRIVATE_KEY_PRECOMPUTE(rsa_private_key PRIV)
+	{
+		PRIV.pND=PRIV.p.invmod2m();
+		PRIV.pR2=PRIV.p.montR2();
+		PRIV.qND=PRIV.q.invmod2m();
+		PRIV.qR2=PRIV.q.montR2();
+	}
+
+/* make the Montgomery constants of n once, for every ENCRYPT with this key */
+	public static void PUBLIC_KEY_PRECOMPUTE(rsa_public_key PUB)
+	{
+		PUB.nND=PUB.n.invmod2m();
+		PUB.nR2=PUB.n.montR2();
+	}
+
 /* Mask Generation Function */
 
 	public static void MGF1(byte[] Z,int olen,byte[] K)
@@ -273,6 +378,9 @@ public final class RSA {
 		PRIV.dp.zero();
 		PRIV.dq.zero();
 		PRIV.c.zero();
+		if (PRIV.pR2!=null) PRIV.pR2.zero();
+		if (PRIV.qR2!=null) PRIV.qR2.zero();
+		PRIV.pND=PRIV.qND=PRIV.pR2=PRIV.qR2=null;
 	}
 
 	/* RSA encryption with the public key */
@@ -282,22 +390,76 @@ public final class RSA {
 		FF f=new FF(n);
 
 		FF.fromBytes(f,F);
-		f.power(PUB.e,PUB.n);
+		if (PUB.nR2!=null) f.power(PUB.e,PUB.n,PUB.nND,PUB.nR2);
+		else f.power(PUB.e,PUB.n);
 		f.toBytes(G);
 	}
 
 	/* RSA decryption with the private key */
 	public static void DECRYPT(rsa_private_key PRIV,byte[] G,byte[] F)
+	{
+		DECRYPT(PRIV,G,F,null);
+	}
+
+	/* RSA decryption with the private key, with the exponentiation mod q offered to exec while this thread does */
+	/* the one mod p. If exec has not started it by then, as when this is called from a busy thread of exec, this */
+	/* thread runs it too, so that it never waits on a task that is still queued */
+	public static void DECRYPT(final rsa_private_key PRIV,byte[] G,byte[] F,Executor exec)
 	{
 		int n=PRIV.p.getlen();
 		FF g=new FF(2*n);
+		FF pND=PRIV.pND,pR2=PRIV.pR2;
+		FF qND=PRIV.qND,qR2=PRIV.qR2;
+		if (pND==null || pR2==null || qND==null || qR2==null)
+		{ /* not precomputed */
+			pND=PRIV.p.invmod2m(); pR2=PRIV.p.montR2();
+			qND=PRIV.q.invmod2m(); qR2=PRIV.q.montR2();
+		}
 
 		FF.fromBytes(g,G);
-		FF jp=g.dmod(PRIV.p);
-		FF jq=g.dmod(PRIV.q);
+		FF jp=g.dmod(PRIV.p,pND,pR2);
+		final FF jq=g.dmod(PRIV.q,qND,qR2);
+		final FF nd=qND,r2=qR2;
 
-		jp.skpow(PRIV.dp,PRIV.p);
-		jq.skpow(PRIV.dq,PRIV.q);
+		FutureTask<Object> half=new FutureTask<Object>(new Runnable()
+		{
+			public void run()
+			{
+				jq.skpow(PRIV.dq,PRIV.q,nd,r2);
+			}
+		},null);
+		if (exec!=null)
+		{
+			try
+			{
+				exec.execute(half);
+			}
+			catch (RejectedExecutionException e)
+			{ /* run by this thread below */
+			}
+		}
+
+		jp.skpow(PRIV.dp,PRIV.p,pND,pR2);
+		half.run();   /* does nothing if exec has started it */
+
+		boolean interrupted=false;
+		for (;;)
+		{ /* the task is either done or running on another thread, and cannot be abandoned, as jq is needed */
+			try
+			{
+				half.get();
+				break;
+			}
+			catch (InterruptedException e)
+			{
+				interrupted=true;
+			}
+			catch (ExecutionException e)
+			{
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
 
 		g.zero();
 		g.dscopy(jp);
@@ -307,12 +469,81 @@ public final class RSA {
 		jq.norm();
 
 		FF t=FF.mul(PRIV.c,jq);
-		jq=t.dmod(PRIV.q);
+		FF h=t.dmod(PRIV.q,qND,qR2);
 
-		t=FF.mul(jq,PRIV.p);
+		t=FF.mul(h,PRIV.p);
 		g.add(t);
 		g.norm();
 
 		g.toBytes(F);
 	}
+
+	/* decrypt in[i] to out[i] with PRIV, on the common ForkJoinPool. Each out[i] is RFS bytes, as for DECRYPT */
+	public static void DECRYPT_BATCH(rsa_private_key PRIV,byte[][] in,byte[][] out)
+	{
+		rsa_private_key[] K=new rsa_private_key[in.length];
+		for (int i=0;i<K.length;i++) K[i]=PRIV;
+		DECRYPT_BATCH(K,in,out,ForkJoinPool.commonPool());
+	}
+
+	/* decrypt in[i] to out[i] with key K[i], on pool. Keys may repeat, and the Montgomery constants of a key */
+	/* that has none are made once for the batch. Idle threads of pool steal halves of the remaining work */
+	public static void DECRYPT_BATCH(rsa_private_key[] K,byte[][] in,byte[][] out,ForkJoinPool pool)
+	{
+		if (K.length!=in.length || out.length!=in.length) throw new IllegalArgumentException("batch lengths differ");
+		if (in.length==0) return;
+		IdentityHashMap<rsa_private_key,rsa_private_key> made=new IdentityHashMap<rsa_private_key,rsa_private_key>();
+		rsa_private_key[] W=new rsa_private_key[K.length];
+		try
+		{
+			for (int i=0;i<K.length;i++)
+			{
+				rsa_private_key k=K[i];
+				if (k.pND!=null && k.pR2!=null && k.qND!=null && k.qR2!=null) { W[i]=k; continue; }
+				W[i]=made.get(k);
+				if (W[i]==null)
+				{ /* a copy, so that keys that other threads may be using are not changed */
+					W[i]=new rsa_private_key(k.p,k.q,k.dp,k.dq,k.c);
+					made.put(k,W[i]);
+					PRIVATE_KEY_PRECOMPUTE(W[i]);
+				}
+			}
+			pool.invoke(new Batch(W,in,out,0,in.length));
+		}
+		finally
+		{ /* the copies are wiped even if a decryption failed */
+			for (rsa_private_key k : made.values())
+			{
+				if (k.pR2!=null) k.pR2.zero();
+				if (k.qR2!=null) k.qR2.zero();
+			}
+		}
+	}
+
+	/* decryption of in[lo..hi-1], split in two until one is left */
+	private static final class Batch extends RecursiveAction
+	{
+		private static final long serialVersionUID=1L;
+
+		private final rsa_private_key[] K;
+		private final byte[][] in,out;
+		private final int lo,hi;
+
+		Batch(rsa_private_key[] K,byte[][] in,byte[][] out,int lo,int hi)
+		{
+			this.K=K; this.in=in; this.out=out;
+			this.lo=lo; this.hi=hi;
+		}
+
+		protected void compute()
+		{
+			if (hi-lo==1)
+			{
+				DECRYPT(K[lo],in[lo],out[lo]);
+				return;
+			}
+			int m=(lo+hi)>>>1;
+			invokeAll(new Batch(K,in,out,lo,m),new Batch(K,in,out,m,hi));
+		}
+	}
 }
@@ -21,6 +21,9 @@ under the License.
 
 public class BIG {
 	private long[] w=new long[ROM.NLEN];
+
+/* true if Kernel was generated for this NLEN and BASEBITS, so that its unrolled kernels can be used */
+	static final boolean UNROLLED=(Kernel.NLEN==ROM.NLEN && Kernel.BASEBITS==ROM.BASEBITS);
 /* Constructors */
 	public BIG()
 	{
@@ -86,6 +89,15 @@ public class BIG {
 		return true;
 	}
 
+/* 1 if this=0, or else 0, reading every digit whatever their values */
+	int ctzilch()
+	{
+		long d=0;
+		for (int i=0;i<ROM.NLEN;i++)
+			d|=w[i];
+		return (int)(((d|-d)>>>63)^1);
+	}
+
 /* set to zero */
 	public void zero()
 	{
@@ -152,6 +164,7 @@ public class BIG {
 
 /* normalise BIG - force all digits < 2^BASEBITS */
 	public long norm() {
+		if (UNROLLED) return Kernel.norm(w);
 		long d,carry=0;
 		for (int i=0;i<ROM.NLEN-1;i++)
 		{
@@ -340,23 +353,17 @@ public class BIG {
 
 	public long muladd(long a,long b,long c,int i)
 	{
-		long x0,x1,y0,y1;
-		x0=a&ROM.HMASK;
-		x1=(a>>ROM.HBITS);
-		y0=b&ROM.HMASK;
-		y1=(b>>ROM.HBITS);
-		long bot=x0*y0;
-		long top=x1*y1;
-		long mid=x0*y1+x1*y0;
-		x0=mid&ROM.HMASK;
-		x1=(mid>>ROM.HBITS);
-		bot+=x0<<ROM.HBITS; bot+=c; bot+=w[i];
-		top+=x1;
-		long carry=bot>>ROM.BASEBITS;
-		bot&=ROM.MASK;
-		top+=carry;
-		w[i]=bot;
-		return top;
+		long lo=a*b;
+		long top=hiword(a,b,lo);
+		long bot=(lo&ROM.MASK)+c+w[i];
+		w[i]=bot&ROM.MASK;
+		return top+(bot>>ROM.BASEBITS);
+	}
+
+/* a*b>>BASEBITS, given lo=a*b. The full 128-bit product comes from one multiply and one multiplyHigh */
+	static long hiword(long a,long b,long lo)
+	{
+		return (Math.multiplyHigh(a,b)<<(64-ROM.BASEBITS))|(lo>>>ROM.BASEBITS);
 	}
 
 /* this*=x, where x is >NEXCESS */
@@ -660,51 +667,99 @@ nbs is number of bits processed, and nzs is number of trailing 0s detected */
 	public static DBIG mul(BIG a,BIG b)
 	{
 		DBIG c=new DBIG(0);
-		long carry;
+		mul(a,b,c);
+		return c;
+	}
+
+/* c=a*b, into an existing DBIG. The two halves of each limb product are summed into their columns, and carries propagated once at the end */
+	public static void mul(BIG a,BIG b,DBIG c)
+	{
 		a.norm();
 		b.norm();
+		if (UNROLLED) Kernel.mul(a.w,b.w,c.w);
+		else loopmul(a,b,c);
+	}
+
+/* c=a*b for normed a and b, by the loops that Kernel.mul unrolls */
+	static void loopmul(BIG a,BIG b,DBIG c)
+	{
+		long t;
+		long[] x=a.w,y=b.w,z=c.w;
+		c.zero();
 
 		for (int i=0;i<ROM.NLEN;i++)
 		{
-			carry=0;
 			for (int j=0;j<ROM.NLEN;j++)
-				carry=c.muladd(a.w[i],b.w[j],carry,i+j);
-			c.w[ROM.NLEN+i]=carry;
+			{
+				t=x[i]*y[j];
+				z[i+j]+=t&ROM.MASK;
+				z[i+j+1]+=hiword(x[i],y[j],t);
+			}
 		}
-
-		return c;
+		c.norm();
 	}
 
 /* return a^2 as DBIG */
 	public static DBIG sqr(BIG a)
 	{
 		DBIG c=new DBIG(0);
-		long carry;
+		sqr(a,c);
+		return c;
+	}
+
+/* c=a^2, into an existing DBIG. As mul, but each cross product is computed once and doubled */
+	public static void sqr(BIG a,DBIG c)
+	{
 		a.norm();
+		if (UNROLLED) Kernel.sqr(a.w,c.w);
+		else loopsqr(a,c);
+	}
+
+/* c=a^2 for normed a, by the loops that Kernel.sqr unrolls */
+	static void loopsqr(BIG a,DBIG c)
+	{
+		long t,u;
+		long[] x=a.w,z=c.w;
+		c.zero();
+
 		for (int i=0;i<ROM.NLEN;i++)
 		{
-			carry=0;
+			t=x[i]*x[i];
+			z[2*i]+=t&ROM.MASK;
+			z[2*i+1]+=hiword(x[i],x[i],t);
+			u=2*x[i];
 			for (int j=i+1;j<ROM.NLEN;j++)
-				carry=c.muladd(2*a.w[i],a.w[j],carry,i+j);
-			c.w[ROM.NLEN+i]=carry;
+			{
+				t=u*x[j];
+				z[i+j]+=t&ROM.MASK;
+				z[i+j+1]+=hiword(u,x[j],t);
+			}
 		}
-
-		for (int i=0;i<ROM.NLEN;i++)
-			c.w[2*i+1]+=c.muladd(a.w[i],a.w[i],0,2*i);
-
 		c.norm();
-		return c;
 	}
 
 /* reduce a DBIG to a BIG using the appropriate form of the modulus */
 	public static BIG mod(DBIG d)
 	{
-		BIG b;
+		BIG b=new BIG(0);
+		mod(d,b);
+		return b;
+	}
+
+/* b=d reduced using the appropriate form of the modulus. d is destroyed */
+	public static void mod(DBIG d,BIG b)
+	{
 		if (ROM.MODTYPE==ROM.PSEUDO_MERSENNE)
 		{
+			if (UNROLLED)
+			{
+				Kernel.pmred(d.w,b.w);
+				return;
+			}
 			long v,tw;
-			BIG t=d.split(ROM.MODBITS);
-			b=new BIG(d);
+			BIG t=Scratch.get().t;
+			d.split(ROM.MODBITS,t);
+			b.copy(d);
 
 			v=t.pmul((int)ROM.MConst);
 			tw=t.w[ROM.NLEN-1];
@@ -716,42 +771,48 @@ nbs is number of bits processed, and nzs is number of trailing 0s detected */
 		}
 		if (ROM.MODTYPE==ROM.MONTGOMERY_FRIENDLY)
 		{
+			if (UNROLLED)
+			{
+				Kernel.mfred(d.w,b.w);
+				return;
+			}
 			for (int i=0;i<ROM.NLEN;i++)
 				d.w[ROM.NLEN+i]+=d.muladd(d.w[i],ROM.MConst-1,d.w[i],ROM.NLEN+i-1);
 
-			b=new BIG(0);
-
 			for (int i=0;i<ROM.NLEN;i++ )
 				b.w[i]=d.w[ROM.NLEN+i];
 			b.norm();
 		}
 
 		if (ROM.MODTYPE==ROM.NOT_SPECIAL)
-		{
-			BIG md=new BIG(ROM.Modulus);
-			long m,carry;
+		{ /* Montgomery reduction, with carries delayed as in mul */
+			if (UNROLLED)
+			{
+				Kernel.monty(d.w,b.w);
+				return;
+			}
+			long t,m,carry=0;
+			long[] z=d.w,p=ROM.Modulus;
+
 			for (int i=0;i<ROM.NLEN;i++)
 			{
-				if (ROM.MConst==-1) m=(-d.w[i])&ROM.MASK;
-				else
+				m=(ROM.MConst*(z[i]+carry))&ROM.MASK;
+				for (int j=0;j<ROM.NLEN;j++)
 				{
-					if (ROM.MConst==1) m=d.w[i];
-					else m=(ROM.MConst*d.w[i])&ROM.MASK;
+					t=m*p[j];
+					z[i+j]+=t&ROM.MASK;
+					z[i+j+1]+=hiword(m,p[j],t);
 				}
-
-				carry=0;
-				for (int j=0;j<ROM.NLEN;j++)
-					carry=d.muladd(m,md.w[j],carry,i+j);
-				d.w[ROM.NLEN+i]+=carry;
+				carry=(z[i]+carry)>>ROM.BASEBITS;
 			}
-
-			b=new BIG(0);
-			for (int i=0;i<ROM.NLEN;i++ )
-				b.w[i]=d.w[ROM.NLEN+i];
-			b.norm();
+			for (int i=ROM.NLEN;i<ROM.DNLEN-1;i++)
+			{
+				t=z[i]+carry;
+				b.w[i-ROM.NLEN]=t&ROM.MASK;
+				carry=t>>ROM.BASEBITS;
+			}
+			b.w[ROM.NLEN-1]=z[ROM.DNLEN-1]+carry;
 		}
-
-		return b;
 	}
 
 /* return a*b mod m */
@@ -899,4 +960,141 @@ nbs is number of bits processed, and nzs is number of trailing 0s detected */
 		if (comp(u,one)==0) copy(x1);
 		else copy(x2);
 	}
+
+/* Constant time inversion by the divsteps of Bernstein and Yang, "Fast constant-time gcd computation and modular inversion". */
+/* Numbers are held in signed 30-bit limbs, so that 30 divsteps can be applied at a time with a 2x2 matrix of longs */
+	private static final int DSBITS=30;
+	private static final long DSMASK=((long)1<<DSBITS)-1;
+
+/* a as n limbs of DSBITS bits. a must be normalised */
+	private static long[] toDS(BIG a,int n)
+	{
+		long[] r=new long[n];
+		for (int k=0;k<n;k++)
+		{
+			int o=k*DSBITS;
+			int i=o/ROM.BASEBITS;
+			int s=o%ROM.BASEBITS;
+			if (i>=ROM.NLEN) break;
+			long v=a.w[i]>>s;
+			if (i+1<ROM.NLEN) v|=a.w[i+1]<<(ROM.BASEBITS-s);
+			r[k]=v&DSMASK;
+		}
+		return r;
+	}
+
+/* this=a, where a is held as limbs of DSBITS bits, non-negative and less than 2^(NLEN*BASEBITS) */
+	private void fromDS(long[] a)
+	{
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			int o=i*ROM.BASEBITS;
+			long v=0;
+			for (int k=o/DSBITS,s=k*DSBITS-o;s<ROM.BASEBITS && k<a.length;k++,s+=DSBITS)
+				v|=(s<0)?a[k]>>-s:a[k]<<s;
+			w[i]=v&ROM.MASK;
+		}
+	}
+
+/* a+=m if mask is all ones. Both are normalised */
+	private static void dsadd(long[] a,long[] m,long mask)
+	{
+		int n=a.length;
+		long c=0;
+		for (int i=0;i<n-1;i++)
+		{
+			c+=a[i]+(m[i]&mask);
+			a[i]=c&DSMASK; c>>=DSBITS;
+		}
+		a[n-1]+=c+(m[n-1]&mask);
+	}
+
+/* a=-a if mask is all ones */
+	private static void dsneg(long[] a,long mask)
+	{
+		int n=a.length;
+		long c=0;
+		for (int i=0;i<n-1;i++)
+		{
+			c+=(a[i]^mask)-mask;
+			a[i]=c&DSMASK; c>>=DSBITS;
+		}
+		a[n-1]=((a[n-1]^mask)-mask)+c;
+	}
+
+/* this=1/this mod p, for odd p, in constant time. Unlike invmodp, this need not be less than p */
+	public void ctinvmodp(BIG p)
+	{
+		norm();
+		int d=ROM.NLEN*ROM.BASEBITS;
+		int n=d/DSBITS+2;
+		int steps=(49*d+80)/17+1;   /* enough for any inputs of d bits, by Theorem 11.2 of the paper */
+		long[] m=toDS(p,n);
+		long[] f=toDS(p,n);
+		long[] g=toDS(this,n);
+		long[] a=new long[n];
+		long[] b=new long[n];
+		b[0]=1;
+		long minv=m[0];
+		for (int i=0;i<4;i++) minv*=2-m[0]*minv;
+		long delta=1;
+
+/* f=a*this and g=b*this mod p throughout, and f ends as the gcd 1 or -1 */
+		for (int k=0;k<steps;k+=DSBITS)
+		{
+			long u=1,v=0,q=0,r=1;
+			long fi=f[0],gi=g[0];
+/* each divstep is (delta,f,g)=(1-delta,g,(g-f)/2) if delta>0 and g is odd, and otherwise (1+delta,f,(g+(g&1)f)/2) */
+			for (int i=0;i<DSBITS;i++)
+			{
+				long odd=-(gi&1);
+				long sw=((-delta)>>63)&odd;
+				delta=((delta^sw)-sw)+1;
+				gi+=((fi^sw)-sw)&odd;
+				q+=((u^sw)-sw)&odd;
+				r+=((v^sw)-sw)&odd;
+				fi+=gi&sw; u+=q&sw; v+=r&sw;
+				gi>>=1; u<<=1; v<<=1;
+			}
+
+/* [f,g]=[u,v;q,r][f,g]/2^DSBITS, which is exact */
+			long cf=u*f[0]+v*g[0];
+			long cg=q*f[0]+r*g[0];
+			cf>>=DSBITS; cg>>=DSBITS;
+			for (int i=1;i<n;i++)
+			{
+				cf+=u*f[i]+v*g[i];
+				cg+=q*f[i]+r*g[i];
+				f[i-1]=cf&DSMASK; cf>>=DSBITS;
+				g[i-1]=cg&DSMASK; cg>>=DSBITS;
+			}
+			f[n-1]=cf; g[n-1]=cg;
+
+/* [a,b]=[u,v;q,r][a,b]/2^DSBITS mod p. p is added to a or b if negative, and a multiple of p below 2^DSBITS*p */
+/* is added to make the division exact, which keeps a and b in (-2p,p) */
+			long sa=a[n-1]>>63,sb=b[n-1]>>63;
+			long ma=(u&sa)+(v&sb);
+			long mb=(q&sa)+(r&sb);
+			long ca=u*a[0]+v*b[0];
+			long cb=q*a[0]+r*b[0];
+			ma-=(minv*ca+ma)&DSMASK;
+			mb-=(minv*cb+mb)&DSMASK;
+			ca+=ma*m[0]; cb+=mb*m[0];
+			ca>>=DSBITS; cb>>=DSBITS;
+			for (int i=1;i<n;i++)
+			{
+				ca+=u*a[i]+v*b[i]+ma*m[i];
+				cb+=q*a[i]+r*b[i]+mb*m[i];
+				a[i-1]=ca&DSMASK; ca>>=DSBITS;
+				b[i-1]=cb&DSMASK; cb>>=DSBITS;
+			}
+			a[n-1]=ca; b[n-1]=cb;
+		}
+
+/* 1/this=a*f, brought into [0,p) */
+		dsadd(a,m,a[n-1]>>63);
+		dsneg(a,f[n-1]>>63);
+		dsadd(a,m,a[n-1]>>63);
+		fromDS(a);
+	}
 }
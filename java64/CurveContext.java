@@ -0,0 +1,92 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* A curve chosen at run time. Each curve is compiled into its own package from these sources, with its constants fixed in that package's
+   ROM, and its ROMContext is the CurveContext of that curve. So several curves can be served from one JVM, and each keeps the code
+   specialised for its own modulus and curve */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public abstract class CurveContext
+{
+	private static final ConcurrentHashMap<String,CurveContext> CONTEXTS=new ConcurrentHashMap<String,CurveContext>();
+
+	public final String name;
+	public final int MODBITS;
+	public final int MODTYPE;
+	public final int CURVETYPE;
+	public final int EFS;
+	public final int EGS;
+
+	protected CurveContext(String name,int modbits,int modtype,int curvetype,int efs,int egs)
+	{
+		this.name=name;
+		MODBITS=modbits;
+		MODTYPE=modtype;
+		CURVETYPE=curvetype;
+		EFS=efs;
+		EGS=egs;
+	}
+
+/* return the context of the named curve, or null if it is not on the classpath */
+	public static CurveContext get(String name)
+	{
+		CurveContext c=CONTEXTS.get(name);
+		if (c!=null) return c;
+
+		String cls=CurveContext.class.getName();
+		int i=cls.lastIndexOf('.');
+		if (i<0) cls="ROMContext";  /* sources compiled as they are - only the curve in ROM */
+		else cls=cls.substring(0,i+1)+name+".ROMContext";
+		try
+		{
+			c=(CurveContext)Class.forName(cls).getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return null;
+		}
+		if (!c.name.equals(name)) return null;
+		CONTEXTS.putIfAbsent(name,c);
+		return CONTEXTS.get(name);
+	}
+
+/* Field and curve constants, as big-endian byte arrays */
+	public abstract byte[] modulus();
+	public abstract long MConst();
+	public abstract int CURVE_A();
+	public abstract byte[] CURVE_B();
+	public abstract byte[] CURVE_Order();
+	public abstract byte[] CURVE_Gx();
+	public abstract byte[] CURVE_Gy();
+
+/* ECDH and ECDSA, as the methods of the same name in ECDH */
+	public abstract int KEY_PAIR_GENERATE(RAND RNG,byte[] S,byte[] W);
+	public abstract int PUBLIC_KEY_VALIDATE(boolean full,byte[] W);
+	public abstract int ECPSVDP_DH(byte[] S,byte[] WD,byte[] Z);
+	public abstract int ECPSP_DSA(RAND RNG,byte[] S,byte[] F,byte[] C,byte[] D);
+	public abstract int ECPVP_DSA(byte[] W,byte[] F,byte[] C,byte[] D);
+	public abstract int[] ECPVP_DSA_BATCH(RAND RNG,byte[][] W,byte[][] F,byte[][] C,byte[][] D);
+
+	public String toString()
+	{
+		return name;
+	}
+}
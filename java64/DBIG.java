@@ -47,6 +47,25 @@ public class DBIG {
 		for (int i=ROM.NLEN+1;i<ROM.DNLEN;i++) w[i]=0;
 	}
 
+/* set this=0 */
+	public void zero()
+	{
+		for (int i=0;i<ROM.DNLEN;i++)
+			w[i]=0;
+	}
+
+/* copy this=x, as the constructor from a BIG */
+	public void copy(BIG x)
+	{
+		for (int i=0;i<ROM.NLEN-1;i++)
+			w[i]=x.get(i);
+
+		w[ROM.NLEN-1]=x.get(ROM.NLEN-1)&ROM.MASK; /* top word normalized */
+		w[ROM.NLEN]=x.get(ROM.NLEN-1)>>ROM.BASEBITS;
+
+		for (int i=ROM.NLEN+1;i<ROM.DNLEN;i++) w[i]=0;
+	}
+
 /* get and set digits of this */
 	public long get(int i)
 	{
@@ -72,6 +91,11 @@ public class DBIG {
 
 /* normalise this */
 	public void norm() {
+		if (BIG.UNROLLED)
+		{
+			Kernel.dnorm(w);
+			return;
+		}
 		long d,carry=0;
 		for (int i=0;i<ROM.DNLEN-1;i++)
 		{
@@ -169,23 +193,11 @@ public class DBIG {
 /* What if you knew the bottom half in advance ?? */
 	public long muladd(long a,long b,long c,int i)
 	{
-		long x0,x1,y0,y1;
-		x0=a&ROM.HMASK;
-		x1=(a>>ROM.HBITS);
-		y0=b&ROM.HMASK;
-		y1=(b>>ROM.HBITS);
-		long bot=x0*y0;
-		long top=x1*y1;
-		long mid=x0*y1+x1*y0;
-		x0=mid&ROM.HMASK;
-		x1=(mid>>ROM.HBITS);
-		bot+=x0<<ROM.HBITS; bot+=c; bot+=w[i];
-		top+=x1;
-		long carry=bot>>ROM.BASEBITS;
-		bot&=ROM.MASK;
-		top+=carry;
-		w[i]=bot;
-		return top;
+		long lo=a*b;
+		long top=BIG.hiword(a,b,lo);
+		long bot=(lo&ROM.MASK)+c+w[i];
+		w[i]=bot&ROM.MASK;
+		return top+(bot>>ROM.BASEBITS);
 	}
 
 /* Compare a and b, return 0 if a==b, -1 if a<b, +1 if a>b. Inputs must be normalised */
@@ -292,6 +304,13 @@ public class DBIG {
 	public BIG split(int n)
 	{
 		BIG t=new BIG(0);
+		split(n,t);
+		return t;
+	}
+
+/* split DBIG at position n, higher half into t, keep lower half */
+	public void split(int n,BIG t)
+	{
 		int m=n%ROM.BASEBITS;
 		long nw,carry=w[ROM.DNLEN-1]<<(ROM.BASEBITS-m);
 
@@ -302,6 +321,5 @@ public class DBIG {
 			t.set(i-ROM.NLEN+1,nw);
 		}
 		w[ROM.NLEN-1]&=(((long)1<<m)-1);
-		return t;
 	}
 }
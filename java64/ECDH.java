@@ -269,20 +269,11 @@ public final class ECDH {
  * otherwise it is generated randomly internally */
 	public static int KEY_PAIR_GENERATE(RAND RNG,byte[] S,byte[] W)
 	{
-		BIG r,gx,gy,s,wx,wy;
-		ECP G,WP;
+		BIG r,s,wx,wy;
+		ECP WP;
 		int res=0;
 		byte[] T=new byte[EFS];
 
-		gx=new BIG(ROM.CURVE_Gx);
-		if (ROM.CURVETYPE!=ROM.MONTGOMERY)
-		{
-			gy=new BIG(ROM.CURVE_Gy);
-			G=new ECP(gx,gy);
-		}
-		else
-			G=new ECP(gx);
-
 		r=new BIG(ROM.CURVE_Order);
 
 		if (RNG==null)
@@ -297,7 +288,7 @@ public final class ECDH {
 			for (int i=0;i<EGS;i++) S[i]=T[i];
 		}
 
-		WP=G.mul(s);
+		WP=ECPTable.generator().mul(s);
 		WP.toBytes(W);
 
 		return res;
@@ -354,17 +345,14 @@ public final class ECDH {
 	public static int ECPSP_DSA(RAND RNG,byte[] S,byte[] F,byte[] C,byte[] D)
 	{
 		byte[] T=new byte[EFS];
-		BIG gx,gy,r,s,f,c,d,u,vx;
-		ECP G,V;
+		BIG r,s,f,c,d,u,vx;
+		ECPTable G=ECPTable.generator();
+		ECP V;
 
 		HASH H=new HASH();
 		H.process_array(F);
 		byte[] B=H.hash();
 
-		gx=new BIG(ROM.CURVE_Gx);
-		gy=new BIG(ROM.CURVE_Gy);
-
-		G=new ECP(gx,gy);
 		r=new BIG(ROM.CURVE_Order);
 
 		s=BIG.fromBytes(S);
@@ -372,18 +360,16 @@ public final class ECDH {
 
 		c=new BIG(0);
 		d=new BIG(0);
-		V=new ECP();
 
 		do {
 			u=BIG.randomnum(r,RNG);
 
-			V.copy(G);
-			V=V.mul(u);
+			V=G.mul(u);
 			vx=V.getX();
 			c.copy(vx);
 			c.mod(r);
 			if (c.iszilch()) continue;
-			u.invmodp(r);
+			u.ctinvmodp(r);
 			d.copy(BIG.modmul(s,c,r));
 			d.add(f);
 			d.copy(BIG.modmul(u,d,r));
@@ -399,19 +385,15 @@ public final class ECDH {
 /* IEEE1363 ECDSA Signature Verification. Signature C and D on F is verified using public key W */
 	public static int ECPVP_DSA(byte[] W,byte[] F, byte[] C,byte[] D)
 	{
-		BIG r,gx,gy,f,c,d,h2;
+		BIG r,f,c,d,h2;
 		int res=0;
-		ECP G,WP,P;
+		ECP WP,P;
 		int valid;
 
 		HASH H=new HASH();
 		H.process_array(F);
 		byte[] B=H.hash();
 
-		gx=new BIG(ROM.CURVE_Gx);
-		gy=new BIG(ROM.CURVE_Gy);
-
-		G=new ECP(gx,gy);
 		r=new BIG(ROM.CURVE_Order);
 
 		c=BIG.fromBytes(C);
@@ -431,9 +413,7 @@ public final class ECDH {
 			if (WP.is_infinity()) res=ERROR;
 			else
 			{
-				P=new ECP();
-				P.copy(WP);
-				P=P.mul2(h2,G,f);
+				P=ECPTable.generator().mul2vt(f,WP,h2);
 				if (P.is_infinity()) res=INVALID;
 				else
 				{
@@ -447,6 +427,156 @@ public final class ECDH {
 		return res;
 	}
 
+/* Batch ECDSA verification of signatures C[i],D[i] on F[i] with public keys W[i]. Returns the ECPVP_DSA result for each */
+/* Signatures are checked BATCH at a time with a random linear combination - a group that fails is checked one by one */
+/* The randomisers come from RNG and must not be known to whoever chose the signatures */
+	public static int[] ECPVP_DSA_BATCH(RAND RNG,byte[][] W,byte[][] F,byte[][] C,byte[][] D)
+	{
+		if (RNG==null) throw new IllegalArgumentException("no RNG for the batch randomisers");
+		if (F.length!=W.length || C.length!=W.length || D.length!=W.length) throw new IllegalArgumentException("batch lengths differ");
+		int i,j,k,n=W.length;
+		int[] res=new int[n];
+		BIG r=new BIG(ROM.CURVE_Order);
+		BIG[] u1=new BIG[n];
+		BIG[] u2=new BIG[n];
+		ECP[] WP=new ECP[n];
+		ECP[] R=new ECP[n];
+		int[] batch=new int[n];
+		int m=0;
+
+		if (ROM.CURVETYPE==ROM.MONTGOMERY)
+		{
+			for (i=0;i<n;i++) res[i]=ECPVP_DSA(W[i],F[i],C[i],D[i]);
+			return res;
+		}
+
+/* parse, and lift each c to a point R with that x coordinate. Anything unusual is left to ECPVP_DSA */
+		for (i=0;i<n;i++)
+		{
+			BIG c=BIG.fromBytes(C[i]);
+			BIG d=BIG.fromBytes(D[i]);
+			if (c.iszilch() || BIG.comp(c,r)>=0 || d.iszilch() || BIG.comp(d,r)>=0)
+			{
+				res[i]=INVALID;
+				continue;
+			}
+			WP[i]=ECP.fromBytes(W[i]);
+			R[i]=lift(c);
+			if (WP[i].is_infinity() || R[i].is_infinity())
+			{
+				res[i]=ECPVP_DSA(W[i],F[i],C[i],D[i]);
+				continue;
+			}
+			HASH H=new HASH();
+			H.process_array(F[i]);
+			d.invmodp(r);
+			u1[i]=BIG.modmul(BIG.fromBytes(H.hash()),d,r);
+			u2[i]=BIG.modmul(c,d,r);
+			batch[m++]=i;
+		}
+
+		for (j=0;j<m;j+=BATCH)
+		{
+			k=Math.min(BATCH,m-j);
+			if (!batchCheck(RNG,batch,j,k,u1,u2,WP,R))
+			{
+				for (int l=j;l<j+k;l++)
+				{
+					i=batch[l];
+					res[i]=ECPVP_DSA(W[i],F[i],C[i],D[i]);
+				}
+			}
+		}
+		return res;
+	}
+
+/* a point with x coordinate c, either sign */
+	private static ECP lift(BIG c)
+	{
+		FP x=new FP(c);
+		FP rhs=ECP.RHS(x);
+		FP y=rhs.sqrt();
+		FP t=new FP(y);
+		t.sqr();
+		if (!t.equals(rhs)) return new ECP();
+		return new ECP(c,y.redc());
+	}
+
+/* Signatures per linear combination. The sign of each R is unknown, so up to 2^BATCH combinations are tried */
+	private static final int BATCH=5;
+
+/* Bits in each randomiser. A bad signature gets through one sign choice with probability 2^-ZBITS, */
+/* so at most 2^(BATCH-ZBITS) over all of them */
+	private static final int ZBITS=128;
+
+/* true if sum z.(u1.G+u2.W-s.R)=O for random z and some choice of signs s=+/-1, for signatures batch[j..j+k-1] */
+	private static boolean batchCheck(RAND RNG,int[] batch,int j,int k,BIG[] u1,BIG[] u2,ECP[] WP,ECP[] R)
+	{
+		int i,l;
+		BIG r=new BIG(ROM.CURVE_Order);
+		BIG a=new BIG(0);
+		BIG[] z=new BIG[k];
+		BIG[] e=new BIG[2*k+1];
+		int[] w=new int[2*k+1];
+		ECP[][] T=new ECP[2*k+1][];
+		ECP[] all=new ECP[12*k];
+		ECP N=new ECP();
+		byte[] zb=new byte[EGS];
+		int na=0;
+
+		ECPTable G=ECPTable.generator();
+		if (G.oddMultiples()==null) return false;
+		T[0]=G.oddMultiples();
+		w[0]=ECPTable.WNAF;
+		for (l=0;l<k;l++)
+		{
+			i=batch[j+l];
+			do {
+				for (int b=EGS-ZBITS/8;b<EGS;b++) zb[b]=(byte)RNG.getByte();
+				z[l]=BIG.fromBytes(zb);
+			} while (z[l].iszilch());
+
+			a.add(BIG.modmul(z[l],u1[i],r)); a.mod(r);
+			e[2*l+1]=BIG.modmul(z[l],u2[i],r);
+			w[2*l+1]=5;
+			T[2*l+1]=ECP.oddMultiples(WP[i],5,false);
+			N.copy(R[i]); N.neg();
+			e[2*l+2]=z[l];
+			w[2*l+2]=4;
+			T[2*l+2]=ECP.oddMultiples(N,4,false);
+			for (ECP P : T[2*l+1]) all[na++]=P;
+			for (ECP P : T[2*l+2]) all[na++]=P;
+		}
+		e[0]=a;
+		if (ROM.CURVETYPE==ROM.WEIERSTRASS)
+		{
+			if (ECP.hasInfinity(all,na)) return false;
+			ECP.multiaffine(na,all);
+		}
+
+		ECP V=ECP.straus(T,w,e);
+		if (V.is_infinity()) return true;
+
+/* V=-2.sum z.R over the R with the wrong sign - try each choice in Gray code order */
+		ECP[] P2=new ECP[k];
+		boolean[] flip=new boolean[k];
+		for (int g=1;g<(1<<k);g++)
+		{
+			l=Integer.numberOfTrailingZeros(g);
+			if (P2[l]==null)
+			{ /* 2z.R, only once it is needed */
+				BIG t=new BIG(z[l]); t.add(z[l]); t.norm();
+				P2[l]=ECP.straus(new ECP[][] {T[2*l+2]},new int[] {4},new BIG[] {t});
+				P2[l].neg();
+			}
+			flip[l]=!flip[l];
+			if (flip[l]) V.add(P2[l]);
+			else V.sub(P2[l]);
+			if (V.is_infinity()) return true;
+		}
+		return false;
+	}
+
 /* IEEE1363 ECIES encryption. Encryption of plaintext M uses public key W and produces ciphertext V,C,T */
 	public static byte[] ECIES_ENCRYPT(byte[] P1,byte[] P2,RAND RNG,byte[] W,byte[] M,byte[] V,byte[] T)
 	{
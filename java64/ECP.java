@@ -24,6 +24,7 @@ public final class ECP {
 	private FP y;
 	private FP z;
 	private boolean INF;
+	private static final FP CURVE_B=new FP(new BIG(ROM.CURVE_B));
 
 /* Constructor - set to O */
 	public ECP() {
@@ -59,7 +60,7 @@ public final class ECP {
 	}
 
 /* Conditional move of Q to P dependant on d */
-	private void cmove(ECP Q,int d)
+	void cmove(ECP Q,int d)
 	{
 		x.cmove(Q.x,d);
 		if (ROM.CURVETYPE!=ROM.MONTGOMERY) y.cmove(Q.y,d);
@@ -82,7 +83,7 @@ public final class ECP {
 	}
 
 /* Constant time select from pre-computed table */
-	private void select(ECP W[],int b)
+	void select(ECP W[],int b)
 	{
 		ECP MP=new ECP();
 		int m=b>>31;
@@ -216,6 +217,82 @@ public final class ECP {
 		return r;
 	}
 
+/* Shallue-van de Woestijne constants - Z, g(Z), -Z/2, sqrt(-g(Z)(3Z^2+4A)) with even sign and -4g(Z)/(3Z^2+4A), where g is RHS. */
+/* Z is the first of 1,-1,2,-2.. that satisfies the conditions of draft-irtf-cfrg-hash-to-curve. Found on first use */
+	private static final class SvdW
+	{
+		static final FP[] C=svdw();
+	}
+
+	private static FP[] svdw()
+	{
+		for (int k=1;;k++)
+		{
+			for (int s=0;s<2;s++)
+			{
+				FP z=new FP(k);
+				if (s==1) {z.neg(); z.norm();}
+				FP gz=RHS(new FP(z));
+				FP t=new FP(z);
+				t.sqr(); t.imul(3);
+				if (ROM.CURVE_A==-3) {t.sub(new FP(12)); t.norm();}
+				if (gz.iszilch() || t.iszilch()) continue;
+				FP c4=new FP(t);
+				c4.inverse(); c4.mul(gz); c4.imul(4); c4.neg(); c4.norm();
+				if (c4.jacobi()!=1) continue;
+				FP hz=new FP(z);
+				hz.neg(); hz.norm(); hz.div2();
+				if (gz.jacobi()!=1 && RHS(new FP(hz)).jacobi()!=1) continue;
+				FP c3=new FP(gz);
+				c3.mul(t); c3.neg(); c3.norm();
+				c3=c3.sqrt();
+				if (c3.redc().parity()==1) {c3.neg(); c3.norm();}
+				return new FP[] {z,gz,hz,c3,c4};
+			}
+		}
+	}
+
+/* map u to a point by the Shallue-van de Woestijne method, with the same field operations for any u - */
+/* an inverse and three square roots. For WEIERSTRASS curves, and the cofactor is not cleared */
+	public static ECP map2point(FP u)
+	{
+		FP[] C=SvdW.C;
+		FP Z=C[0],c1=C[1],c2=C[2],c3=C[3],c4=C[4];
+		FP one=new FP(1);
+		FP t1=new FP(u);
+		t1.sqr(); t1.mul(c1);
+		FP t2=new FP(one);
+		t2.add(t1); t2.norm();
+		t1.neg(); t1.add(one); t1.norm();
+		FP t3=new FP(t1);
+		t3.mul(t2); t3.inverse();
+		FP t4=new FP(u);
+		t4.mul(t1); t4.mul(t3); t4.mul(c3);
+
+		FP x1=new FP(c2); x1.sub(t4); x1.norm();
+		FP x2=new FP(c2); x2.add(t4); x2.norm();
+		FP x3=new FP(t2);
+		x3.sqr(); x3.mul(t3); x3.sqr(); x3.mul(c4); x3.add(Z); x3.norm();
+
+		FP g1=RHS(x1),g2=RHS(x2),g3=RHS(x3);
+		FP y1=g1.sqrt(),y2=g2.sqrt(),y3=g3.sqrt();
+		FP t=new FP(y1);
+		t.sqr();
+		int e1=t.equals(g1)?1:0;
+		t.copy(y2); t.sqr();
+		int e2=(t.equals(g2)?1:0)&(1-e1);
+		x3.cmove(x1,e1); x3.cmove(x2,e2);
+		y3.cmove(y1,e1); y3.cmove(y2,e2);
+
+/* y takes the sign of u */
+		t.copy(y3); t.neg(); t.norm();
+		y3.cmove(t,u.redc().parity()^y3.redc().parity());
+		ECP P=new ECP();
+		P.x.copy(x3); P.y.copy(y3);
+		P.INF=false;
+		return P;
+	}
+
 /* set (x,y) from two BIGs */
 	public ECP(BIG ix,BIG iy) {
 		x=new FP(ix);
@@ -269,12 +346,15 @@ public final class ECP {
 /* set to affine - from (x,y,z) to (x,y) */
 	public void affine() {
 		if (is_infinity()) return;
-		FP one=new FP(1);
+		FP[] w=Scratch.get().ecp;
+		FP one=w[0];
+		one.one();
 		if (z.equals(one)) return;
 		z.inverse();
 		if (ROM.CURVETYPE==ROM.WEIERSTRASS)
 		{
-			FP z2=new FP(z);
+			FP z2=w[1];
+			z2.copy(z);
 			z2.sqr();
 			x.mul(z2); x.reduce();
 			y.mul(z2);
@@ -379,11 +459,17 @@ public final class ECP {
 				return;
 			}
 
-			FP w1=new FP(x);
-			FP w6=new FP(z);
-			FP w2=new FP(0);
-			FP w3=new FP(x);
-			FP w8=new FP(x);
+			FP[] w=Scratch.get().ecp;
+			FP w1=w[0];
+			FP w6=w[1];
+			FP w2=w[2];
+			FP w3=w[3];
+			FP w8=w[4];
+
+			w1.copy(x);
+			w6.copy(z);
+			w3.copy(x);
+			w8.copy(x);
 
 			if (ROM.CURVE_A==-3)
 			{
@@ -432,10 +518,15 @@ public final class ECP {
 		}
 		if (ROM.CURVETYPE==ROM.EDWARDS)
 		{
-			FP C=new FP(x);
-			FP D=new FP(y);
-			FP H=new FP(z);
-			FP J=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP C=w[0];
+			FP D=w[1];
+			FP H=w[2];
+			FP J=w[3];
+
+			C.copy(x);
+			D.copy(y);
+			H.copy(z);
 
 			x.mul(y); x.add(x);
 			C.sqr();
@@ -457,14 +548,17 @@ public final class ECP {
 		}
 		if (ROM.CURVETYPE==ROM.MONTGOMERY)
 		{
-			FP A=new FP(x);
-			FP B=new FP(x);
-			FP AA=new FP(0);
-			FP BB=new FP(0);
-			FP C=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP A=w[0];
+			FP B=w[1];
+			FP AA=w[2];
+			FP BB=w[3];
+			FP C=w[4];
 
 			if (INF) return;
 
+			A.copy(x);
+			B.copy(x);
 			A.add(z);
 			AA.copy(A); AA.sqr();
 			B.sub(z);
@@ -498,17 +592,21 @@ public final class ECP {
 			if (Q.INF) return;
 
 			boolean aff=false;
-
-			FP one=new FP(1);
+			FP[] w=Scratch.get().ecp;
+			FP one=w[0];
+			one.one();
 			if (Q.z.equals(one)) aff=true;
 
-			FP A,C;
-			FP B=new FP(z);
-			FP D=new FP(z);
+			FP A=w[1];
+			FP B=w[2];
+			FP C=w[3];
+			FP D=w[4];
+			B.copy(z);
+			D.copy(z);
 			if (!aff)
 			{
-				A=new FP(Q.z);
-				C=new FP(Q.z);
+				A.copy(Q.z);
+				C.copy(Q.z);
 
 				A.sqr(); B.sqr();
 				C.mul(A); D.mul(B);
@@ -518,8 +616,8 @@ public final class ECP {
 			}
 			else
 			{
-				A=new FP(x);
-				C=new FP(y);
+				A.copy(x);
+				C.copy(y);
 
 				B.sqr();
 				D.mul(B);
@@ -545,7 +643,8 @@ public final class ECP {
 			if (!aff) z.mul(Q.z);
 			z.mul(B);
 
-			FP e=new FP(B); e.sqr();
+			FP e=w[5];
+			e.copy(B); e.sqr();
 			B.mul(e);
 			A.mul(e);
 
@@ -566,14 +665,20 @@ public final class ECP {
 		}
 		if (ROM.CURVETYPE==ROM.EDWARDS)
 		{
-			FP b=new FP(new BIG(ROM.CURVE_B));
-			FP A=new FP(z);
-			FP B=new FP(0);
-			FP C=new FP(x);
-			FP D=new FP(y);
-			FP E=new FP(0);
-			FP F=new FP(0);
-			FP G=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP b=w[0];
+			FP A=w[1];
+			FP B=w[2];
+			FP C=w[3];
+			FP D=w[4];
+			FP E=w[5];
+			FP F=w[6];
+			FP G=w[7];
+
+			b.copy(CURVE_B);
+			A.copy(z);
+			C.copy(x);
+			D.copy(y);
 		//	FP H=new FP(0);
 		//	FP I=new FP(0);
 
@@ -617,12 +722,18 @@ public final class ECP {
 
 /* Differential Add for Montgomery curves. this+=Q where W is this-Q and is affine. */
 	public void dadd(ECP Q,ECP W) {
-			FP A=new FP(x);
-			FP B=new FP(x);
-			FP C=new FP(Q.x);
-			FP D=new FP(Q.x);
-			FP DA=new FP(0);
-			FP CB=new FP(0);
+			FP[] w=Scratch.get().ecp;
+			FP A=w[0];
+			FP B=w[1];
+			FP C=w[2];
+			FP D=w[3];
+			FP DA=w[4];
+			FP CB=w[5];
+
+			A.copy(x);
+			B.copy(x);
+			C.copy(Q.x);
+			D.copy(Q.x);
 
 			A.add(z);
 			B.sub(z);
@@ -900,6 +1011,244 @@ public final class ECP {
 		return S;
 	}
 
+/* Variable time routines - only for public data, as in signature verification */
+
+/* width-w NAF of e, least significant digit first. Digits are odd and less than 2^(w-1) in magnitude. Returns number of digits */
+	static int wnaf(BIG e,int w,byte[] naf)
+	{
+		BIG t=new BIG(e);
+		int d,i=0,m=1<<w;
+		t.norm();
+		while (!t.iszilch())
+		{
+			d=0;
+			if (t.parity()==1)
+			{
+				d=t.lastbits(w);
+				if (d>=m/2) d-=m;
+				if (d>0) t.dec(d);
+				else t.inc(-d);
+				t.norm();
+			}
+			naf[i++]=(byte)d;
+			t.fshr(1);
+		}
+		return i;
+	}
+
+/* P,3P,5P..(2^(w-1)-1)P, for use with wnaf digits of width w */
+	static ECP[] oddMultiples(ECP P,int w)
+	{
+		ECP[] T=oddMultiples(P,w,false);
+		if (ROM.CURVETYPE==ROM.WEIERSTRASS && !hasInfinity(T,T.length))
+			multiaffine(T.length,T);
+		return T;
+	}
+
+/* as above, but left in projective form if !aff - so that several tables can share one multiaffine */
+	static ECP[] oddMultiples(ECP P,int w,boolean aff)
+	{
+		int i,n=1<<(w-2);
+		ECP[] T=new ECP[n];
+		ECP Q=new ECP();
+		Q.copy(P); Q.dbl();
+		T[0]=new ECP(); T[0].copy(P);
+		for (i=1;i<n;i++)
+		{
+			T[i]=new ECP();
+			T[i].copy(T[i-1]);
+			T[i].add(Q);
+		}
+		if (aff && ROM.CURVETYPE==ROM.WEIERSTRASS && !hasInfinity(T,n))
+			multiaffine(n,T);
+		return T;
+	}
+
+/* multiaffine needs every point finite */
+	static boolean hasInfinity(ECP[] P,int m)
+	{
+		for (int i=0;i<m;i++)
+			if (P[i].is_infinity()) return true;
+		return false;
+	}
+
+/* Straus interleaving - return sum of e[i].P[i], where T[i]=oddMultiples(P[i],w[i]). T is not changed */
+	static ECP straus(ECP[][] T,int[] w,BIG[] e)
+	{
+		int i,j,d,len=0;
+		int n=T.length;
+		byte[][] naf=new byte[n][ROM.NLEN*ROM.BASEBITS+1];
+		int[] nd=new int[n];
+		ECP R=new ECP();
+		ECP S=new ECP();
+
+		for (j=0;j<n;j++)
+		{
+			nd[j]=wnaf(e[j],w[j],naf[j]);
+			if (nd[j]>len) len=nd[j];
+		}
+
+		for (i=len-1;i>=0;i--)
+		{
+			R.dbl();
+			for (j=0;j<n;j++)
+			{
+				if (i>=nd[j]) continue;
+				d=naf[j][i];
+				if (d>0)
+				{
+					S.copy(T[j][d>>1]);
+					R.add(S);
+				}
+				if (d<0)
+				{
+					S.copy(T[j][(-d)>>1]);
+					S.neg();
+					R.add(S);
+				}
+			}
+		}
+		R.affine();
+		return R;
+	}
+
+/* Return e.this+f.Q in variable time using width-5 NAFs. Only for public data */
+	public ECP mul2vt(BIG e,ECP Q,BIG f)
+	{
+		if (ROM.CURVETYPE==ROM.MONTGOMERY) return mul2(e,Q,f);
+		ECP[][] T=new ECP[2][];
+		T[0]=oddMultiples(this,5);
+		T[1]=oddMultiples(Q,5);
+		return straus(T,new int[] {5,5},new BIG[] {e,f});
+	}
+
+/* Return sum of k[i].P[i] in variable time - Straus for few terms, Pippenger buckets for many. Only for public data. P and k are not changed */
+	public static ECP multiMul(ECP[] P,BIG[] k)
+	{
+		if (ROM.CURVETYPE==ROM.MONTGOMERY) throw new IllegalArgumentException("no point addition on a Montgomery curve");
+		int i,m=0,n=P.length;
+		ECP[] Q=new ECP[n];
+		BIG[] e=new BIG[n];
+		for (i=0;i<n;i++)
+		{
+			if (P[i].is_infinity() || k[i].iszilch()) continue;
+			Q[m]=new ECP(); Q[m].copy(P[i]);
+			e[m]=new BIG(k[i]); e[m].norm();
+			m++;
+		}
+		if (m==0) return new ECP();
+		if (m<PIPPENGER) return multiStraus(Q,e,m);
+		return pippenger(Q,e,m);
+	}
+
+/* number of terms above which Pippenger beats Straus */
+	static final int PIPPENGER=64;
+
+	private static ECP multiStraus(ECP[] P,BIG[] e,int m)
+	{
+		int i,j,n=0;
+		ECP[][] T=new ECP[m][];
+		int[] w=new int[m];
+		BIG[] f=new BIG[m];
+		for (i=0;i<m;i++)
+		{
+			w[i]=5;
+			f[i]=e[i];
+			T[i]=oddMultiples(P[i],5,false);
+			n+=T[i].length;
+		}
+		if (ROM.CURVETYPE==ROM.WEIERSTRASS)
+		{ /* one inversion for all tables */
+			ECP[] A=new ECP[n];
+			n=0;
+			for (i=0;i<m;i++)
+				for (j=0;j<T[i].length;j++) A[n++]=T[i][j];
+			if (!hasInfinity(A,n)) multiaffine(n,A);
+		}
+		return straus(T,w,f);
+	}
+
+/* signed base 2^c digits of e, least significant first, each in [-2^(c-1),2^(c-1)). Returns number of digits */
+	static int sdigits(BIG e,int c,int[] d)
+	{
+		BIG t=new BIG(e);
+		int v,i=0,m=1<<c;
+		t.norm();
+		while (!t.iszilch())
+		{
+			v=t.lastbits(c);
+			if (v>=m/2)
+			{
+				v-=m;
+				t.inc(-v);
+			}
+			else t.dec(v);
+			t.norm();
+			t.fshr(c);
+			d[i++]=v;
+		}
+		return i;
+	}
+
+/* window size for Pippenger with m terms */
+	static int pwindow(int m)
+	{
+		int c=-2;
+		while (m>0) {m>>=1; c++;}
+		if (c<4) c=4;
+		if (c>16) c=16;
+		return c;
+	}
+
+/* Pippenger - for each window the points are sorted into buckets, which are summed by running sums */
+	private static ECP pippenger(ECP[] P,BIG[] e,int m)
+	{
+		int i,j,t,d,len=0;
+		int c=pwindow(m);
+		int h=1<<(c-1);
+		int[][] dg=new int[m][(ROM.NLEN*ROM.BASEBITS+c)/c+1];
+		int[] nd=new int[m];
+		ECP[] B=new ECP[h+1];
+		ECP R=new ECP();
+		ECP S=new ECP();
+		ECP U=new ECP();
+		ECP N=new ECP();
+
+		if (ROM.CURVETYPE==ROM.WEIERSTRASS && !hasInfinity(P,m)) multiaffine(m,P);
+		for (i=0;i<m;i++)
+		{
+			nd[i]=sdigits(e[i],c,dg[i]);
+			if (nd[i]>len) len=nd[i];
+		}
+		for (j=1;j<=h;j++) B[j]=new ECP();
+
+		for (t=len-1;t>=0;t--)
+		{
+			for (j=0;j<c;j++) R.dbl();
+			for (j=1;j<=h;j++) B[j].inf();
+			for (i=0;i<m;i++)
+			{
+				if (t>=nd[i]) continue;
+				d=dg[i][t];
+				if (d>0) B[d].add(P[i]);
+				if (d<0)
+				{
+					N.copy(P[i]); N.neg();
+					B[-d].add(N);
+				}
+			}
+			S.inf(); U.inf();
+			for (j=h;j>=1;j--)
+			{ /* U=sum of j.B[j] */
+				S.add(B[j]);
+				U.add(S);
+			}
+			R.add(U);
+		}
+		R.affine();
+		return R;
+	}
+
 /*
 	public static void main(String[] args) {
 
@@ -125,11 +125,14 @@ public final class ECP2 {
 /* set to Affine - (x,y,z) to (x,y) */
 	public void affine() {
 		if (is_infinity()) return;
-		FP2 one=new FP2(1);
+		FP2[] w=Scratch.get().ecp2;
+		FP2 one=w[0];
+		one.one();
 		if (z.equals(one)) return;
 		z.inverse();
 
-		FP2 z2=new FP2(z);
+		FP2 z2=w[1];
+		z2.copy(z);
 		z2.sqr();
 		x.mul(z2); x.reduce();
 		y.mul(z2);
@@ -223,6 +226,77 @@ public final class ECP2 {
 		r.reduce();
 		return r;
 	}
+/* Shallue-van de Woestijne constants for the twist, as for ECP - Z, g(Z), -Z/2, sqrt(-3g(Z)Z^2) with even sign and -4g(Z)/(3Z^2) */
+	private static final class SvdW
+	{
+		static final FP2[] C=svdw();
+	}
+
+	private static FP2[] svdw()
+	{
+		for (int k=1;;k++)
+		{
+			for (int s=0;s<2;s++)
+			{
+				FP2 z=new FP2(k);
+				if (s==1) {z.neg(); z.norm();}
+				FP2 gz=RHS(new FP2(z));
+				FP2 t=new FP2(z);
+				t.sqr(); t.imul(3);
+				if (gz.iszilch()) continue;
+				FP2 c4=new FP2(t);
+				c4.inverse(); c4.mul(gz); c4.imul(4); c4.neg(); c4.norm();
+				if (!c4.issquare()) continue;
+				FP2 hz=new FP2(z);
+				hz.neg(); hz.norm(); hz.div2();
+				if (!gz.issquare() && !RHS(new FP2(hz)).issquare()) continue;
+				FP2 c3=new FP2(gz);
+				c3.mul(t); c3.neg(); c3.norm();
+				c3.ctsqrt();
+				if (c3.sgn0()==1) {c3.neg(); c3.norm();}
+				return new FP2[] {z,gz,hz,c3,c4};
+			}
+		}
+	}
+
+/* map u to a point on the twist by the Shallue-van de Woestijne method, with the same field operations for any u. */
+/* The cofactor is not cleared */
+	public static ECP2 map2point(FP2 u)
+	{
+		FP2[] C=SvdW.C;
+		FP2 Z=C[0],c1=C[1],c2=C[2],c3=C[3],c4=C[4];
+		FP2 one=new FP2(1);
+		FP2 t1=new FP2(u);
+		t1.sqr(); t1.mul(c1);
+		FP2 t2=new FP2(one);
+		t2.add(t1); t2.norm();
+		t1.neg(); t1.add(one); t1.norm();
+		FP2 t3=new FP2(t1);
+		t3.mul(t2); t3.inverse();
+		FP2 t4=new FP2(u);
+		t4.mul(t1); t4.mul(t3); t4.mul(c3);
+
+		FP2 x1=new FP2(c2); x1.sub(t4); x1.norm();
+		FP2 x2=new FP2(c2); x2.add(t4); x2.norm();
+		FP2 x3=new FP2(t2);
+		x3.sqr(); x3.mul(t3); x3.sqr(); x3.mul(c4); x3.add(Z); x3.norm();
+
+		int e1=RHS(new FP2(x1)).issquare()?1:0;
+		int e2=(RHS(new FP2(x2)).issquare()?1:0)&(1-e1);
+		x3.cmove(x1,e1); x3.cmove(x2,e2);
+		FP2 y=RHS(x3);
+		y.ctsqrt();
+
+/* y takes the sign of u */
+		FP2 t=new FP2(y);
+		t.neg(); t.norm();
+		y.cmove(t,u.sgn0()^y.sgn0());
+		ECP2 P=new ECP2();
+		P.x.copy(x3); P.y.copy(y);
+		P.INF=false;
+		return P;
+	}
+
 /* construct this from (x,y) - but set to O if not on curve */
 	public ECP2(FP2 ix,FP2 iy) {
 		x=new FP2(ix);
@@ -258,10 +332,15 @@ public final class ECP2 {
 			return -1;
 		}
 
-		FP2 w1=new FP2(x);
-		FP2 w2=new FP2(0);
-		FP2 w3=new FP2(x);
-		FP2 w8=new FP2(x);
+		FP2[] w=Scratch.get().ecp2;
+		FP2 w1=w[0];
+		FP2 w2=w[1];
+		FP2 w3=w[2];
+		FP2 w8=w[3];
+
+		w1.copy(x);
+		w3.copy(x);
+		w8.copy(x);
 
 		w1.sqr();
 		w8.copy(w1);
@@ -307,13 +386,17 @@ public final class ECP2 {
 
 		if (Q.z.isunity()) aff=true;
 
-		FP2 A,C;
-		FP2 B=new FP2(z);
-		FP2 D=new FP2(z);
+		FP2[] w=Scratch.get().ecp2;
+		FP2 A=w[0];
+		FP2 B=w[1];
+		FP2 C=w[2];
+		FP2 D=w[3];
+		B.copy(z);
+		D.copy(z);
 		if (!aff)
 		{
-			A=new FP2(Q.z);
-			C=new FP2(Q.z);
+			A.copy(Q.z);
+			C.copy(Q.z);
 
 			A.sqr(); B.sqr();
 			C.mul(A); D.mul(B);
@@ -323,8 +406,8 @@ public final class ECP2 {
 		}
 		else
 		{
-			A=new FP2(x);
-			C=new FP2(y);
+			A.copy(x);
+			C.copy(y);
 
 			B.sqr();
 			D.mul(B);
@@ -350,7 +433,8 @@ public final class ECP2 {
 		if (!aff) z.mul(Q.z);
 		z.mul(B);
 
-		FP2 e=new FP2(B); e.sqr();
+		FP2 e=w[4];
+		e.copy(B); e.sqr();
 		B.mul(e);
 		A.mul(e);
 
@@ -590,6 +674,147 @@ public final class ECP2 {
 		return P;
 	}
 
+/* Return e.this in variable time from the NAF of e, with no table. Only for public e of low weight, such as CURVE_Bnx */
+	public ECP2 mulnaf(BIG e)
+	{
+		byte[] naf=new byte[ROM.NLEN*ROM.BASEBITS+1];
+		int n=ECP.wnaf(e,2,naf);
+		ECP2 P=new ECP2();
+		ECP2 N=new ECP2();
+		if (is_infinity()) return P;
+		affine();
+		N.copy(this); N.neg();
+		for (int i=n-1;i>=0;i--)
+		{
+			P.dbl();
+			if (naf[i]>0) P.add(this);
+			if (naf[i]<0) P.add(N);
+		}
+		P.affine();
+		return P;
+	}
+
+/* Return sum of k[i].P[i] in variable time - Straus for few terms, Pippenger buckets for many. Only for public data. P and k are not changed */
+	public static ECP2 multiMul(ECP2[] P,BIG[] k)
+	{
+		int i,m=0,n=P.length;
+		ECP2[] Q=new ECP2[n];
+		BIG[] e=new BIG[n];
+		for (i=0;i<n;i++)
+		{
+			if (P[i].is_infinity() || k[i].iszilch()) continue;
+			Q[m]=new ECP2(); Q[m].copy(P[i]);
+			e[m]=new BIG(k[i]); e[m].norm();
+			m++;
+		}
+		if (m==0) return new ECP2();
+		if (m<ECP.PIPPENGER) return straus(Q,e,m);
+		return pippenger(Q,e,m);
+	}
+
+/* multiaffine needs every point finite */
+	private static boolean hasInfinity(ECP2[] P,int m)
+	{
+		for (int i=0;i<m;i++)
+			if (P[i].is_infinity()) return true;
+		return false;
+	}
+
+/* Straus interleaving with width-5 NAFs, and one inversion for all the tables of odd multiples */
+	private static ECP2 straus(ECP2[] P,BIG[] e,int m)
+	{
+		int i,j,d,len=0;
+		int w=5,n=1<<(w-2);
+		ECP2[][] T=new ECP2[m][n];
+		ECP2[] A=new ECP2[m*n];
+		byte[][] naf=new byte[m][ROM.NLEN*ROM.BASEBITS+1];
+		int[] nd=new int[m];
+		ECP2 R=new ECP2();
+		ECP2 S=new ECP2();
+
+		for (i=0;i<m;i++)
+		{
+			S.copy(P[i]); S.dbl();
+			T[i][0]=new ECP2(); T[i][0].copy(P[i]);
+			for (j=1;j<n;j++)
+			{
+				T[i][j]=new ECP2(); T[i][j].copy(T[i][j-1]);
+				T[i][j].add(S);
+			}
+			for (j=0;j<n;j++) A[i*n+j]=T[i][j];
+			nd[i]=ECP.wnaf(e[i],w,naf[i]);
+			if (nd[i]>len) len=nd[i];
+		}
+		if (!hasInfinity(A,m*n)) multiaffine(m*n,A);
+
+		for (i=len-1;i>=0;i--)
+		{
+			R.dbl();
+			for (j=0;j<m;j++)
+			{
+				if (i>=nd[j]) continue;
+				d=naf[j][i];
+				if (d>0) R.add(T[j][d>>1]);
+				if (d<0)
+				{
+					S.copy(T[j][(-d)>>1]); S.neg();
+					R.add(S);
+				}
+			}
+		}
+		R.affine();
+		return R;
+	}
+
+/* Pippenger - for each window the points are sorted into buckets, which are summed by running sums */
+	private static ECP2 pippenger(ECP2[] P,BIG[] e,int m)
+	{
+		int i,j,t,d,len=0;
+		int c=ECP.pwindow(m);
+		int h=1<<(c-1);
+		int[][] dg=new int[m][(ROM.NLEN*ROM.BASEBITS+c)/c+1];
+		int[] nd=new int[m];
+		ECP2[] B=new ECP2[h+1];
+		ECP2 R=new ECP2();
+		ECP2 S=new ECP2();
+		ECP2 U=new ECP2();
+		ECP2 N=new ECP2();
+
+		if (!hasInfinity(P,m)) multiaffine(m,P);
+		for (i=0;i<m;i++)
+		{
+			nd[i]=ECP.sdigits(e[i],c,dg[i]);
+			if (nd[i]>len) len=nd[i];
+		}
+		for (j=1;j<=h;j++) B[j]=new ECP2();
+
+		for (t=len-1;t>=0;t--)
+		{
+			for (j=0;j<c;j++) R.dbl();
+			for (j=1;j<=h;j++) B[j].inf();
+			for (i=0;i<m;i++)
+			{
+				if (t>=nd[i]) continue;
+				d=dg[i][t];
+				if (d>0) B[d].add(P[i]);
+				if (d<0)
+				{
+					N.copy(P[i]); N.neg();
+					B[-d].add(N);
+				}
+			}
+			S.inf(); U.inf();
+			for (j=h;j>=1;j--)
+			{ /* U=sum of j.B[j] */
+				S.add(B[j]);
+				U.add(S);
+			}
+			R.add(U);
+		}
+		R.affine();
+		return R;
+	}
+
 
 /*
 	public static void main(String[] args) {
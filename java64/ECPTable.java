@@ -0,0 +1,178 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Fixed base table for multiplying a long-lived point, like the curve generator */
+/* Holds (2k+1).16^j.P for k=0..7 and every 4-bit window j, so mul needs no doublings */
+
+public final class ECPTable {
+	private static final int BITS=8*ROM.MODBYTES+2; /* largest multiplier handled, plus room to make it odd */
+	private static final int NW=1+(BITS+3)/4;     /* number of signed 4-bit windows */
+	static final int WNAF=7;                      /* width of the variable time table */
+
+	private final ECP base;
+	private final ECP base2; /* 2.base */
+	private final boolean inf;
+	private final ECP[][] W; /* null if the point does not suit a table */
+	private final ECP[] odd;  /* odd multiples of base, for variable time wNAF */
+
+/* Generator table, built on first use */
+	private static final class Generator
+	{
+		static final ECPTable G;
+		static {
+			BIG gx=new BIG(ROM.CURVE_Gx);
+			if (ROM.CURVETYPE!=ROM.MONTGOMERY)
+				G=new ECPTable(new ECP(gx,new BIG(ROM.CURVE_Gy)));
+			else
+				G=new ECPTable(new ECP(gx));
+		}
+	}
+
+	public static ECPTable generator()
+	{
+		return Generator.G;
+	}
+
+/* P should have large prime order. P is not changed */
+	public ECPTable(ECP P)
+	{
+		int i,j,m=0;
+		ECP[][] T=new ECP[NW+1][8];
+		ECP[] all=new ECP[8*(NW+1)];
+		ECP B=new ECP();
+		ECP Q=new ECP();
+		boolean ok;
+
+		base=new ECP(); base.copy(P); base.affine();
+		base2=new ECP(); base2.copy(base); base2.dbl(); base2.affine();
+		inf=base.is_infinity();
+
+		ok=!inf && ROM.CURVETYPE!=ROM.MONTGOMERY;
+		if (!ok)
+		{
+			W=null;
+			odd=null;
+			return;
+		}
+		odd=ECP.oddMultiples(base,WNAF);
+
+		B.copy(base);
+		for (j=0;j<=NW;j++)
+		{
+			if (j>0)
+			{
+				B.dbl(); B.dbl(); B.dbl(); B.dbl();
+			}
+			Q.copy(B); Q.dbl();
+			T[j][0]=new ECP(); T[j][0].copy(B);
+			for (i=1;i<8;i++)
+			{
+				T[j][i]=new ECP();
+				T[j][i].copy(T[j][i-1]);
+				T[j][i].add(Q);
+			}
+			for (i=0;i<8;i++)
+			{
+				if (T[j][i].is_infinity()) ok=false;
+				all[m++]=T[j][i];
+			}
+		}
+		if (!ok)
+		{ /* small order point - not worth a table */
+			W=null;
+			return;
+		}
+
+// convert the table to affine
+		if (ROM.CURVETYPE==ROM.WEIERSTRASS)
+			ECP.multiaffine(m,all);
+		else
+			for (i=0;i<m;i++) all[i].affine();
+		W=T;
+	}
+
+/* return e.P, in constant time as for ECP.mul */
+	public ECP mul(BIG e)
+	{
+		if (e.iszilch() || inf) return new ECP();
+		if (W==null || e.nbits()>BITS-2)
+		{
+			ECP P=new ECP();
+			P.copy(base);
+			return P.mul(e);
+		}
+
+		int i,s,ns;
+		BIG t=new BIG();
+		BIG mt=new BIG();
+		ECP P=new ECP();
+		ECP Q=new ECP();
+		ECP C=new ECP();
+		byte[] w=new byte[NW+1];
+
+// make exponent odd - add 2P if even, P if odd
+		t.copy(e);
+		s=t.parity();
+		t.inc(1); t.norm(); ns=t.parity(); mt.copy(t); mt.inc(1); mt.norm();
+		t.cmove(mt,s);
+		C.copy(base2);
+		C.cmove(base,ns);
+
+// convert exponent to signed 4-bit window, always the same number of windows
+		for (i=0;i<NW;i++)
+		{
+			w[i]=(byte)(t.lastbits(5)-16);
+			t.dec(w[i]); t.norm();
+			t.fshr(4);
+		}
+		w[NW]=(byte)t.lastbits(5);
+
+		P.select(W[NW],w[NW]);
+		for (i=0;i<NW;i++)
+		{
+			Q.select(W[i],w[i]);
+			P.add(Q);
+		}
+		P.sub(C); /* apply correction */
+		P.affine();
+		return P;
+	}
+
+/* odd multiples of the base for wNAF width WNAF, or null. Must not be changed */
+	ECP[] oddMultiples()
+	{
+		return odd;
+	}
+
+/* return e.P+f.Q in variable time - only for public data, as in signature verification */
+	public ECP mul2vt(BIG e,ECP Q,BIG f)
+	{
+		if (odd==null)
+		{
+			ECP P=new ECP();
+			P.copy(base);
+			return P.mul2vt(e,Q,f);
+		}
+		ECP[][] T=new ECP[2][];
+		T[0]=odd;
+		T[1]=ECP.oddMultiples(Q,5);
+		return ECP.straus(T,new int[] {WNAF,5},new BIG[] {e,f});
+	}
+}
@@ -43,7 +43,8 @@ public final class FP4 {
 	}
 /* test this==1 ? */
 	public boolean isunity() {
-		FP2 one=new FP2(1);
+		FP2 one=Scratch.get().fp2[0];
+		one.one();
 		return (a.equals(one) && b.iszilch());
 	}
 
@@ -73,6 +74,12 @@ public final class FP4 {
 		return (a.equals(x.a) && b.equals(x.b));
 	}
 /* constructors */
+	FP4()
+	{
+		a=new FP2();
+		b=new FP2();
+	}
+
 	public FP4(int c)
 	{
 		a=new FP2(c);
@@ -117,8 +124,10 @@ public final class FP4 {
 /* set this=-this */
 	public void neg()
 	{
-		FP2 m=new FP2(a);
-		FP2 t=new FP2(0);
+		FP2[] w=Scratch.get().fp2;
+		FP2 m=w[0];
+		FP2 t=w[1];
+		m.copy(a);
 		m.add(b);
 		m.neg();
 		m.norm();
@@ -146,9 +155,8 @@ public final class FP4 {
 /* this-=x */
 	public void sub(FP4 x)
 	{
-		FP4 m=new FP4(x);
-		m.neg();
-		add(m);
+		a.sub(x.a);
+		b.sub(x.b);
 	}
 
 /* this*=s where s is FP2 */
@@ -163,62 +171,59 @@ public final class FP4 {
 		a.imul(c);
 		b.imul(c);
 	}
-/* this*=this */
+/* this*=this, as (a+b)(a+i.b)-ab-i.ab+2ab.i on unreduced products, with one reduction per component */
 	public void sqr()
 	{
-		norm();
-
-		FP2 t1=new FP2(a);
-		FP2 t2=new FP2(b);
-		FP2 t3=new FP2(a);
-
-		t3.mul(b);
-		t1.add(b);
-		t2.mul_ip();
-
-		t2.add(a);
-		a.copy(t1);
+		Scratch s=Scratch.get();
+		FP2 t1=s.fp2[0];
+		FP2 t2=s.fp2[1];
+		DBIG[] d=s.lazy4;
 
-		a.mul(t2);
+		norm();
+		t1.copy(a); t1.add(b);
+		t2.copy(b); t2.mul_ip(); t2.add(a);
 
-		t2.copy(t3);
-		t2.mul_ip();
-		t2.add(t3);
-		t2.neg();
-		a.add(t2);
+		FP2.mul(t1,t2,d[0],d[1]);
+		FP2.mul(a,b,d[2],d[3]);
 
-		b.copy(t3);
-		b.add(t3);
+		d[0].sub(d[2]); d[0].sub(d[2]); d[0].add(d[3]);  /* real part of (a+b)(a+i.b)-(1+i)ab */
+		d[0].add(FP.PM); d[0].add(FP.PM); d[0].add(FP.PM); d[0].add(FP.PM);
+		d[1].sub(d[2]); d[1].sub(d[3]); d[1].sub(d[3]);
+		d[1].add(FP.PM); d[1].add(FP.PM); d[1].add(FP.PM); d[1].add(FP.PM);
+		d[2].add(d[2]);
+		d[3].add(d[3]);
 
-		norm();
+		a.mod(d[0],d[1]);
+		b.mod(d[2],d[3]);
 	}
-/* this*=y */
+
+/* this*=y, by Karatsuba on unreduced products, with one reduction per component */
 	public void mul(FP4 y)
 	{
-		norm();
+		Scratch s=Scratch.get();
+		FP2 t1=s.fp2[0];
+		FP2 t2=s.fp2[1];
+		DBIG[] d=s.lazy4;
 
-		FP2 t1=new FP2(a);
-		FP2 t2=new FP2(b);
-		FP2 t3=new FP2(0);
-		FP2 t4=new FP2(b);
+		norm();
+		y.norm();
+		t1.copy(a); t1.add(b);
+		t2.copy(y.a); t2.add(y.b);
 
-		t1.mul(y.a);
-		t2.mul(y.b);
-		t3.copy(y.b);
-		t3.add(y.a);
-		t4.add(a);
+		FP2.mul(a,y.a,d[0],d[1]);
+		FP2.mul(b,y.b,d[2],d[3]);
+		FP2.mul(t1,t2,d[4],d[5]);
 
-		t4.mul(t3);
-		t4.sub(t1);
-//		t4.norm();
+		d[4].sub(d[0]); d[4].sub(d[2]);  /* b=(a+b)(ya+yb)-a.ya-b.yb */
+		d[4].add(FP.PM); d[4].add(FP.PM); d[4].add(FP.PM); d[4].add(FP.PM);
+		d[5].sub(d[1]); d[5].sub(d[3]);
+		d[5].add(FP.PM); d[5].add(FP.PM);
 
-		b.copy(t4);
-		b.sub(t2);
-		t2.mul_ip();
-		a.copy(t2);
-		a.add(t1);
+		d[0].add(d[2]); d[0].sub(d[3]); d[0].add(FP.PM);  /* a=a.ya+i.b.yb */
+		d[1].add(d[2]); d[1].add(d[3]);
 
-		norm();
+		a.mod(d[0],d[1]);
+		b.mod(d[4],d[5]);
 	}
 /* convert this to hex string */
 	public String toString()
@@ -236,9 +241,12 @@ public final class FP4 {
 	{
 		norm();
 
-		FP2 t1=new FP2(a);
-		FP2 t2=new FP2(b);
+		FP2[] w=Scratch.get().fp2;
+		FP2 t1=w[0];
+		FP2 t2=w[1];
 
+		t1.copy(a);
+		t2.copy(b);
 		t1.sqr();
 		t2.sqr();
 		t2.mul_ip();
@@ -254,8 +262,11 @@ public final class FP4 {
 	public void times_i()
 	{
 		norm();
-		FP2 s=new FP2(b);
-		FP2 t=new FP2(b);
+		FP2[] w=Scratch.get().fp2;
+		FP2 s=w[0];
+		FP2 t=w[1];
+		s.copy(b);
+		t.copy(b);
 		s.times_i();
 		t.add(s);
 //		t.norm();
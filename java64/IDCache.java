@@ -0,0 +1,174 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Bounded cache of the points that M-Pin identities hash to, for MPIN.SERVER_1, GET_CLIENT_PERMIT and GET_CLIENT_SECRET */
+/* - see MPIN.setIDCache. Entries are keyed by H(CID) and date. Beyond the size limit the least recently used entry is */
+/* dropped, entries expire after their time to live, and entries for earlier dates are dropped when MPIN.today() moves on */
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Arrays;
+
+public final class IDCache
+{
+	private static final class Key
+	{
+		final byte[] h;
+		final int date;
+
+		Key(byte[] h,int date)
+		{
+			this.h=h;
+			this.date=date;
+		}
+
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Key)) return false;
+			Key k=(Key)o;
+			return date==k.date && Arrays.equals(h,k.h);
+		}
+
+		public int hashCode()
+		{
+			return 31*Arrays.hashCode(h)+date;
+		}
+	}
+
+	private static final class Slot
+	{
+		final long born;
+		final byte[] P;         /* mapit(h), or mapit(hashit(date,h)) for a date */
+		volatile byte[][] S;    /* {mapit(h),mapit(h)+P}, the HID and HTID of SERVER_1 for a date */
+
+		Slot(long born,byte[] P)
+		{
+			this.born=born;
+			this.P=P;
+		}
+	}
+
+	private final int size;
+	private final long ttl;
+	private final boolean swmap;   /* the map of every entry, fixed for the life of the cache */
+	private final LinkedHashMap<Key,Slot> map;
+	private int day;
+	private long hits,misses;
+
+/* at most size entries, each kept for at most ttl milliseconds, or for ever if ttl is 0 or less */
+	public IDCache(int size,long ttl)
+	{
+		this.size=size;
+		this.ttl=ttl;
+		swmap=MPIN.SWMAP;
+		day=MPIN.today();
+		map=new LinkedHashMap<Key,Slot>(16,0.75f,true)
+		{
+			protected boolean removeEldestEntry(Map.Entry<Key,Slot> e)
+			{
+				return size()>IDCache.this.size;
+			}
+		};
+	}
+
+/* the entry for h and date, made if need be. Counted as a hit or a miss if count is set */
+	private Slot slot(byte[] h,int date,boolean count)
+	{
+		Key k=new Key(h.clone(),date);
+		long now=System.currentTimeMillis();
+		synchronized (this)
+		{
+			int today=MPIN.today();
+			if (today!=day)
+			{
+				day=today;
+				for (Iterator<Key> i=map.keySet().iterator();i.hasNext();)
+				{
+					int d=i.next().date;
+					if (d!=0 && d<today) i.remove();
+				}
+			}
+			Slot e=map.get(k);
+			if (e!=null && (ttl<=0 || now-e.born<ttl))
+			{
+				if (count) hits++;
+				return e;
+			}
+			if (count) misses++;
+		}
+/* mapit is slow, so it is done outside the lock. Two threads may both miss and compute the same entry */
+		byte[] P=new byte[2*MPIN.EFS+1];
+		MPIN.mapit((date==0)?h:MPIN.hashit(date,h),swmap).toBytes(P);
+		Slot e=new Slot(now,P);
+		synchronized (this)
+		{
+			map.put(k,e);
+		}
+		return e;
+	}
+
+/* mapit(h) if date is 0, and otherwise mapit(hashit(date,h)), as a point in bytes. Must not be changed */
+	byte[] point(byte[] h,int date)
+	{
+		return slot(h,date,true).P;
+	}
+
+/* HID=mapit(h) and HTID=mapit(h)+mapit(hashit(date,h)), as SERVER_1 outputs them for a date. One lookup */
+	void server(byte[] h,int date,byte[] HID,byte[] HTID)
+	{
+		Slot e=slot(h,date,true);
+		byte[][] S=e.S;
+		if (S==null)
+		{
+			byte[] P=slot(h,0,false).P;
+			ECP T=ECP.fromBytes(P);
+			T.add(ECP.fromBytes(e.P));
+			S=new byte[][] {P,new byte[P.length]};
+			T.toBytes(S[1]);
+			e.S=S;
+		}
+		if (HID!=null) System.arraycopy(S[0],0,HID,0,S[0].length);
+		System.arraycopy(S[1],0,HTID,0,S[1].length);
+	}
+
+/* number of lookups found in the cache. Each call of SERVER_1, GET_CLIENT_PERMIT or GET_CLIENT_SECRET is one lookup */
+	public synchronized long hits()
+	{
+		return hits;
+	}
+
+/* number of lookups that had to compute their point */
+	public synchronized long misses()
+	{
+		return misses;
+	}
+
+/* number of entries held */
+	public synchronized int size()
+	{
+		return map.size();
+	}
+
+/* drop every entry. The counts are kept */
+	public synchronized void clear()
+	{
+		map.clear();
+	}
+}
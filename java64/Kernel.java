@@ -0,0 +1,227 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Limb kernels for 64-bit words, NLEN=5 and BASEBITS=56, unrolled. Generated by config/KernelGen.java - do not edit */
+
+final class Kernel
+{
+	static final int NLEN=5;
+	static final int BASEBITS=56;
+	static final long MASK=0xffffffffffffffL;
+
+	private Kernel() {}
+
+/* z=x*y, summing each column of limb products and then propagating its carry - as BIG.mul */
+	static void mul(long[] x,long[] y,long[] z)
+	{
+		long x0=x[0],x1=x[1],x2=x[2],x3=x[3],x4=x[4];
+		long y0=y[0],y1=y[1],y2=y[2],y3=y[3],y4=y[4];
+		long t,c0,c1,c2,c3,c4,c5,c6,c7,c8,c9;
+		t=x0*y0; c0=t&MASK; c1=(Math.multiplyHigh(x0,y0)<<8)|(t>>>56);
+		z[0]=c0&MASK; c1+=c0>>56;
+		t=x0*y1; c1+=t&MASK; c2=(Math.multiplyHigh(x0,y1)<<8)|(t>>>56);
+		t=x1*y0; c1+=t&MASK; c2+=(Math.multiplyHigh(x1,y0)<<8)|(t>>>56);
+		z[1]=c1&MASK; c2+=c1>>56;
+		t=x0*y2; c2+=t&MASK; c3=(Math.multiplyHigh(x0,y2)<<8)|(t>>>56);
+		t=x1*y1; c2+=t&MASK; c3+=(Math.multiplyHigh(x1,y1)<<8)|(t>>>56);
+		t=x2*y0; c2+=t&MASK; c3+=(Math.multiplyHigh(x2,y0)<<8)|(t>>>56);
+		z[2]=c2&MASK; c3+=c2>>56;
+		t=x0*y3; c3+=t&MASK; c4=(Math.multiplyHigh(x0,y3)<<8)|(t>>>56);
+		t=x1*y2; c3+=t&MASK; c4+=(Math.multiplyHigh(x1,y2)<<8)|(t>>>56);
+		t=x2*y1; c3+=t&MASK; c4+=(Math.multiplyHigh(x2,y1)<<8)|(t>>>56);
+		t=x3*y0; c3+=t&MASK; c4+=(Math.multiplyHigh(x3,y0)<<8)|(t>>>56);
+		z[3]=c3&MASK; c4+=c3>>56;
+		t=x0*y4; c4+=t&MASK; c5=(Math.multiplyHigh(x0,y4)<<8)|(t>>>56);
+		t=x1*y3; c4+=t&MASK; c5+=(Math.multiplyHigh(x1,y3)<<8)|(t>>>56);
+		t=x2*y2; c4+=t&MASK; c5+=(Math.multiplyHigh(x2,y2)<<8)|(t>>>56);
+		t=x3*y1; c4+=t&MASK; c5+=(Math.multiplyHigh(x3,y1)<<8)|(t>>>56);
+		t=x4*y0; c4+=t&MASK; c5+=(Math.multiplyHigh(x4,y0)<<8)|(t>>>56);
+		z[4]=c4&MASK; c5+=c4>>56;
+		t=x1*y4; c5+=t&MASK; c6=(Math.multiplyHigh(x1,y4)<<8)|(t>>>56);
+		t=x2*y3; c5+=t&MASK; c6+=(Math.multiplyHigh(x2,y3)<<8)|(t>>>56);
+		t=x3*y2; c5+=t&MASK; c6+=(Math.multiplyHigh(x3,y2)<<8)|(t>>>56);
+		t=x4*y1; c5+=t&MASK; c6+=(Math.multiplyHigh(x4,y1)<<8)|(t>>>56);
+		z[5]=c5&MASK; c6+=c5>>56;
+		t=x2*y4; c6+=t&MASK; c7=(Math.multiplyHigh(x2,y4)<<8)|(t>>>56);
+		t=x3*y3; c6+=t&MASK; c7+=(Math.multiplyHigh(x3,y3)<<8)|(t>>>56);
+		t=x4*y2; c6+=t&MASK; c7+=(Math.multiplyHigh(x4,y2)<<8)|(t>>>56);
+		z[6]=c6&MASK; c7+=c6>>56;
+		t=x3*y4; c7+=t&MASK; c8=(Math.multiplyHigh(x3,y4)<<8)|(t>>>56);
+		t=x4*y3; c7+=t&MASK; c8+=(Math.multiplyHigh(x4,y3)<<8)|(t>>>56);
+		z[7]=c7&MASK; c8+=c7>>56;
+		t=x4*y4; c8+=t&MASK; c9=(Math.multiplyHigh(x4,y4)<<8)|(t>>>56);
+		z[8]=c8&MASK; c9+=c8>>56;
+		z[9]=c9;
+	}
+
+/* z=x^2, each cross product computed once from a doubled limb - as BIG.sqr */
+	static void sqr(long[] x,long[] z)
+	{
+		long x0=x[0],x1=x[1],x2=x[2],x3=x[3],x4=x[4];
+		long u0=2*x0,u1=2*x1,u2=2*x2,u3=2*x3;
+		long t,c0,c1,c2,c3,c4,c5,c6,c7,c8,c9;
+		t=x0*x0; c0=t&MASK; c1=(Math.multiplyHigh(x0,x0)<<8)|(t>>>56);
+		z[0]=c0&MASK; c1+=c0>>56;
+		t=u0*x1; c1+=t&MASK; c2=(Math.multiplyHigh(u0,x1)<<8)|(t>>>56);
+		z[1]=c1&MASK; c2+=c1>>56;
+		t=u0*x2; c2+=t&MASK; c3=(Math.multiplyHigh(u0,x2)<<8)|(t>>>56);
+		t=x1*x1; c2+=t&MASK; c3+=(Math.multiplyHigh(x1,x1)<<8)|(t>>>56);
+		z[2]=c2&MASK; c3+=c2>>56;
+		t=u0*x3; c3+=t&MASK; c4=(Math.multiplyHigh(u0,x3)<<8)|(t>>>56);
+		t=u1*x2; c3+=t&MASK; c4+=(Math.multiplyHigh(u1,x2)<<8)|(t>>>56);
+		z[3]=c3&MASK; c4+=c3>>56;
+		t=u0*x4; c4+=t&MASK; c5=(Math.multiplyHigh(u0,x4)<<8)|(t>>>56);
+		t=u1*x3; c4+=t&MASK; c5+=(Math.multiplyHigh(u1,x3)<<8)|(t>>>56);
+		t=x2*x2; c4+=t&MASK; c5+=(Math.multiplyHigh(x2,x2)<<8)|(t>>>56);
+		z[4]=c4&MASK; c5+=c4>>56;
+		t=u1*x4; c5+=t&MASK; c6=(Math.multiplyHigh(u1,x4)<<8)|(t>>>56);
+		t=u2*x3; c5+=t&MASK; c6+=(Math.multiplyHigh(u2,x3)<<8)|(t>>>56);
+		z[5]=c5&MASK; c6+=c5>>56;
+		t=u2*x4; c6+=t&MASK; c7=(Math.multiplyHigh(u2,x4)<<8)|(t>>>56);
+		t=x3*x3; c6+=t&MASK; c7+=(Math.multiplyHigh(x3,x3)<<8)|(t>>>56);
+		z[6]=c6&MASK; c7+=c6>>56;
+		t=u3*x4; c7+=t&MASK; c8=(Math.multiplyHigh(u3,x4)<<8)|(t>>>56);
+		z[7]=c7&MASK; c8+=c7>>56;
+		t=x4*x4; c8+=t&MASK; c9=(Math.multiplyHigh(x4,x4)<<8)|(t>>>56);
+		z[8]=c8&MASK; c9+=c8>>56;
+		z[9]=c9;
+	}
+
+/* normalise w - as BIG.norm */
+	static long norm(long[] w)
+	{
+		long t=w[0];
+		w[0]=t&MASK; t=w[1]+(t>>56);
+		w[1]=t&MASK; t=w[2]+(t>>56);
+		w[2]=t&MASK; t=w[3]+(t>>56);
+		w[3]=t&MASK; t=w[4]+(t>>56);
+		w[4]=t;
+		return t>>((8*ROM.MODBYTES)%ROM.BASEBITS);
+	}
+
+/* normalise w - as DBIG.norm */
+	static void dnorm(long[] w)
+	{
+		long t=w[0];
+		w[0]=t&MASK; t=w[1]+(t>>56);
+		w[1]=t&MASK; t=w[2]+(t>>56);
+		w[2]=t&MASK; t=w[3]+(t>>56);
+		w[3]=t&MASK; t=w[4]+(t>>56);
+		w[4]=t&MASK; t=w[5]+(t>>56);
+		w[5]=t&MASK; t=w[6]+(t>>56);
+		w[6]=t&MASK; t=w[7]+(t>>56);
+		w[7]=t&MASK; t=w[8]+(t>>56);
+		w[8]=t&MASK; t=w[9]+(t>>56);
+		w[9]=t;
+	}
+
+/* b=d reduced by Montgomery's method, for moduli of type NOT_SPECIAL - as BIG.mod(DBIG,BIG). d is unchanged */
+	static void monty(long[] d,long[] b)
+	{
+		long z0=d[0],z1=d[1],z2=d[2],z3=d[3],z4=d[4],z5=d[5],z6=d[6],z7=d[7],z8=d[8],z9=d[9];
+		long p0=ROM.Modulus[0],p1=ROM.Modulus[1],p2=ROM.Modulus[2],p3=ROM.Modulus[3],p4=ROM.Modulus[4];
+		long t,m,carry;
+		m=(ROM.MConst*z0)&MASK;
+		t=m*p0; z0+=t&MASK; z1+=(Math.multiplyHigh(m,p0)<<8)|(t>>>56);
+		t=m*p1; z1+=t&MASK; z2+=(Math.multiplyHigh(m,p1)<<8)|(t>>>56);
+		t=m*p2; z2+=t&MASK; z3+=(Math.multiplyHigh(m,p2)<<8)|(t>>>56);
+		t=m*p3; z3+=t&MASK; z4+=(Math.multiplyHigh(m,p3)<<8)|(t>>>56);
+		t=m*p4; z4+=t&MASK; z5+=(Math.multiplyHigh(m,p4)<<8)|(t>>>56);
+		carry=z0>>56;
+		m=(ROM.MConst*(z1+carry))&MASK;
+		t=m*p0; z1+=t&MASK; z2+=(Math.multiplyHigh(m,p0)<<8)|(t>>>56);
+		t=m*p1; z2+=t&MASK; z3+=(Math.multiplyHigh(m,p1)<<8)|(t>>>56);
+		t=m*p2; z3+=t&MASK; z4+=(Math.multiplyHigh(m,p2)<<8)|(t>>>56);
+		t=m*p3; z4+=t&MASK; z5+=(Math.multiplyHigh(m,p3)<<8)|(t>>>56);
+		t=m*p4; z5+=t&MASK; z6+=(Math.multiplyHigh(m,p4)<<8)|(t>>>56);
+		carry=(z1+carry)>>56;
+		m=(ROM.MConst*(z2+carry))&MASK;
+		t=m*p0; z2+=t&MASK; z3+=(Math.multiplyHigh(m,p0)<<8)|(t>>>56);
+		t=m*p1; z3+=t&MASK; z4+=(Math.multiplyHigh(m,p1)<<8)|(t>>>56);
+		t=m*p2; z4+=t&MASK; z5+=(Math.multiplyHigh(m,p2)<<8)|(t>>>56);
+		t=m*p3; z5+=t&MASK; z6+=(Math.multiplyHigh(m,p3)<<8)|(t>>>56);
+		t=m*p4; z6+=t&MASK; z7+=(Math.multiplyHigh(m,p4)<<8)|(t>>>56);
+		carry=(z2+carry)>>56;
+		m=(ROM.MConst*(z3+carry))&MASK;
+		t=m*p0; z3+=t&MASK; z4+=(Math.multiplyHigh(m,p0)<<8)|(t>>>56);
+		t=m*p1; z4+=t&MASK; z5+=(Math.multiplyHigh(m,p1)<<8)|(t>>>56);
+		t=m*p2; z5+=t&MASK; z6+=(Math.multiplyHigh(m,p2)<<8)|(t>>>56);
+		t=m*p3; z6+=t&MASK; z7+=(Math.multiplyHigh(m,p3)<<8)|(t>>>56);
+		t=m*p4; z7+=t&MASK; z8+=(Math.multiplyHigh(m,p4)<<8)|(t>>>56);
+		carry=(z3+carry)>>56;
+		m=(ROM.MConst*(z4+carry))&MASK;
+		t=m*p0; z4+=t&MASK; z5+=(Math.multiplyHigh(m,p0)<<8)|(t>>>56);
+		t=m*p1; z5+=t&MASK; z6+=(Math.multiplyHigh(m,p1)<<8)|(t>>>56);
+		t=m*p2; z6+=t&MASK; z7+=(Math.multiplyHigh(m,p2)<<8)|(t>>>56);
+		t=m*p3; z7+=t&MASK; z8+=(Math.multiplyHigh(m,p3)<<8)|(t>>>56);
+		t=m*p4; z8+=t&MASK; z9+=(Math.multiplyHigh(m,p4)<<8)|(t>>>56);
+		carry=(z4+carry)>>56;
+		t=z5+carry; b[0]=t&MASK; carry=t>>56;
+		t=z6+carry; b[1]=t&MASK; carry=t>>56;
+		t=z7+carry; b[2]=t&MASK; carry=t>>56;
+		t=z8+carry; b[3]=t&MASK; carry=t>>56;
+		b[4]=z9+carry;
+	}
+
+/* b=d reduced for moduli of type MONTGOMERY_FRIENDLY - as BIG.mod(DBIG,BIG). d is unchanged */
+	static void mfred(long[] d,long[] b)
+	{
+		long z0=d[0],z1=d[1],z2=d[2],z3=d[3],z4=d[4],z5=d[5],z6=d[6],z7=d[7],z8=d[8],z9=d[9];
+		long c=ROM.MConst-1;
+		long t,bot;
+		t=z0*c; bot=(t&MASK)+z0+z4; z4=bot&MASK; z5+=((Math.multiplyHigh(z0,c)<<8)|(t>>>56))+(bot>>56);
+		t=z1*c; bot=(t&MASK)+z1+z5; z5=bot&MASK; z6+=((Math.multiplyHigh(z1,c)<<8)|(t>>>56))+(bot>>56);
+		t=z2*c; bot=(t&MASK)+z2+z6; z6=bot&MASK; z7+=((Math.multiplyHigh(z2,c)<<8)|(t>>>56))+(bot>>56);
+		t=z3*c; bot=(t&MASK)+z3+z7; z7=bot&MASK; z8+=((Math.multiplyHigh(z3,c)<<8)|(t>>>56))+(bot>>56);
+		t=z4*c; bot=(t&MASK)+z4+z8; z8=bot&MASK; z9+=((Math.multiplyHigh(z4,c)<<8)|(t>>>56))+(bot>>56);
+		t=z5;
+		b[0]=t&MASK; t=z6+(t>>56);
+		b[1]=t&MASK; t=z7+(t>>56);
+		b[2]=t&MASK; t=z8+(t>>56);
+		b[3]=t&MASK; t=z9+(t>>56);
+		b[4]=t;
+	}
+
+/* b=d reduced for moduli of type PSEUDO_MERSENNE - as BIG.mod(DBIG,BIG). d is unchanged */
+	static void pmred(long[] d,long[] b)
+	{
+		long z0=d[0],z1=d[1],z2=d[2],z3=d[3],z4=d[4],z5=d[5],z6=d[6],z7=d[7],z8=d[8],z9=d[9];
+		long c=ROM.MConst;
+		long t0,t1,t2,t3,t4,v,tw;
+		long p,h,bot;
+		t0=(z4>>ROM.TBITS)|((z5<<(56-ROM.TBITS))&MASK);
+		t1=(z5>>ROM.TBITS)|((z6<<(56-ROM.TBITS))&MASK);
+		t2=(z6>>ROM.TBITS)|((z7<<(56-ROM.TBITS))&MASK);
+		t3=(z7>>ROM.TBITS)|((z8<<(56-ROM.TBITS))&MASK);
+		t4=(z8>>ROM.TBITS)|(z9<<(56-ROM.TBITS));
+		p=t0*c; v=(Math.multiplyHigh(t0,c)<<8)|(p>>>56); t0=p&MASK;
+		p=t1*c; h=(Math.multiplyHigh(t1,c)<<8)|(p>>>56); bot=(p&MASK)+v; t1=bot&MASK; v=h+(bot>>56);
+		p=t2*c; h=(Math.multiplyHigh(t2,c)<<8)|(p>>>56); bot=(p&MASK)+v; t2=bot&MASK; v=h+(bot>>56);
+		p=t3*c; h=(Math.multiplyHigh(t3,c)<<8)|(p>>>56); bot=(p&MASK)+v; t3=bot&MASK; v=h+(bot>>56);
+		p=t4*c; h=(Math.multiplyHigh(t4,c)<<8)|(p>>>56); bot=(p&MASK)+v; t4=bot&MASK; v=h+(bot>>56);
+		tw=t4; t4&=ROM.TMASK; t0+=c*((tw>>ROM.TBITS)+(v<<(56-ROM.TBITS)));
+		z4&=ROM.TMASK;
+		long s=z0+t0;
+		b[0]=s&MASK; s=z1+t1+(s>>56);
+		b[1]=s&MASK; s=z2+t2+(s>>56);
+		b[2]=s&MASK; s=z3+t3+(s>>56);
+		b[3]=s&MASK; s=z4+t4+(s>>56);
+		b[4]=s;
+	}
+}
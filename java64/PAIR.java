@@ -21,12 +21,33 @@ under the License.
 
 public final class PAIR {
 
+/* NAF of the curve parameter x, least significant digit first - the chain used for the x-powers in fexp */
+	private static final byte[] XNAF=xnaf();
+
+	private static byte[] xnaf()
+	{
+		byte[] t=new byte[ROM.NLEN*ROM.BASEBITS+1];
+		byte[] naf=new byte[ECP.wnaf(new BIG(ROM.CURVE_Bnx),2,t)];
+		for (int i=0;i<naf.length;i++) naf[i]=t[i];
+		return naf;
+	}
+
 /* Line function */
 	public static FP12 line(ECP2 A,ECP2 B,FP Qx,FP Qy)
+	{
+		FP2[] L=lineCoefficients(A,B);
+		if (L==null)
+			return new FP12(1);
+		L[0].pmul(Qy);
+		L[2].pmul(Qx);
+		return new FP12(new FP4(L[0],L[1]),new FP4(L[2]),new FP4(0));
+	}
+
+/* Line function split from the G1 point - the line is (L0.Qy+L1)+(L2.Qx)w, A=A+B or A=2A. null if A becomes infinity */
+	static FP2[] lineCoefficients(ECP2 A,ECP2 B)
 	{
 		ECP2 P=new ECP2();
 
-		FP4 a,b,c;
 		P.copy(A);
 		FP2 ZZ=new FP2(P.getz());
 		ZZ.sqr();
@@ -34,9 +55,8 @@ public final class PAIR {
 		if (A==B) D=A.dbl(); /* Check this return value in amcl_ec2.c */
 		else D=A.add(B);
 		if (D<0)
-			return new FP12(1);
+			return null;
 		FP2 Z3=new FP2(A.getz());
-		c=new FP4(0);
 		if (D==0)
 		{ /* Addition */
 			FP2 X=new FP2(B.getx());
@@ -47,14 +67,11 @@ public final class PAIR {
 
 			FP2 NY=new FP2(P.gety()); NY.neg();
 			ZZ.add(NY);
-			Z3.pmul(Qy);
 			T.mul(P.getx());
 			X.mul(NY);
 			T.add(X);
-			a=new FP4(Z3,T);
 			ZZ.neg();
-			ZZ.pmul(Qx);
-			b=new FP4(ZZ);
+			return new FP2[] {Z3,T,ZZ};
 		}
 		else
 		{ /* Doubling */
@@ -67,17 +84,13 @@ public final class PAIR {
 			Y.sqr();
 			Y.add(Y);
 			Z3.mul(ZZ);
-			Z3.pmul(Qy);
 
 			X.mul(T);
 			X.sub(Y);
-			a=new FP4(Z3,X);
 			T.neg();
 			ZZ.mul(T);
-			ZZ.pmul(Qx);
-			b=new FP4(ZZ);
+			return new FP2[] {Z3,X,ZZ};
 		}
-		return new FP12(a,b,c);
 	}
 
 /* Optimal R-ate pairing */
@@ -210,11 +223,141 @@ public final class PAIR {
 		return r;
 	}
 
+/* Optimal R-ate multi-pairing e(P[0],Q[0]).e(P[1],Q[1])... sharing one Miller loop. Apply fexp once to the result. */
+/* The points are not changed */
+	public static FP12 multiAte(ECP2[] P,ECP[] Q)
+	{
+		if (P.length!=Q.length) throw new IllegalArgumentException("P and Q differ in length");
+		FP2 f=new FP2(new BIG(ROM.CURVE_Fra),new BIG(ROM.CURVE_Frb));
+		BIG x=new BIG(ROM.CURVE_Bnx);
+		BIG n=new BIG(x);
+		ECP2 K=new ECP2();
+		int m=P.length;
+		int i,j;
+		n.pmul(6); n.dec(2); n.norm();
+
+		FP[] Qx=new FP[m];
+		FP[] Qy=new FP[m];
+		ECP2[] PA=new ECP2[m];
+		ECP2[] A=new ECP2[m];
+		ECP QA=new ECP();
+		FP12 r=new FP12(1);
+
+		for (j=0;j<m;j++)
+		{ /* affine copies */
+			PA[j]=new ECP2();
+			PA[j].copy(P[j]);
+			PA[j].affine();
+			QA.copy(Q[j]);
+			QA.affine();
+			Qx[j]=new FP(QA.getx());
+			Qy[j]=new FP(QA.gety());
+			A[j]=new ECP2();
+			A[j].copy(PA[j]);
+		}
+		int nb=n.nbits();
+
+		for (i=nb-2;i>=1;i--)
+		{
+			for (j=0;j<m;j++)
+				r.smul(line(A[j],A[j],Qx[j],Qy[j]));
+
+			if (n.bit(i)==1)
+			{
+				for (j=0;j<m;j++)
+					r.smul(line(A[j],PA[j],Qx[j],Qy[j]));
+			}
+			r.sqr();
+		}
+
+		for (j=0;j<m;j++)
+			r.smul(line(A[j],A[j],Qx[j],Qy[j]));
+
+/* R-ate fixup */
+		r.conj();
+
+		for (j=0;j<m;j++)
+		{
+			K.copy(PA[j]);
+			K.frob(f);
+			A[j].neg();
+			r.smul(line(A[j],K,Qx[j],Qy[j]));
+			K.frob(f);
+			K.neg();
+			r.smul(line(A[j],K,Qx[j],Qy[j]));
+		}
+
+		return r;
+	}
+
+/* Optimal R-ate pairing, with the line functions of P already computed */
+	public static FP12 ate(PreparedG2 P,ECP Q)
+	{
+		Q.affine();
+		FP Qx=new FP(Q.getx());
+		FP Qy=new FP(Q.gety());
+		FP12 r=new FP12(1);
+		int j=0;
+
+		BIG n=PreparedG2.loopCount();
+		for (int i=n.nbits()-2;i>=1;i--)
+		{
+			r.smul(P.line(j++,Qx,Qy));
+			if (n.bit(i)==1)
+				r.smul(P.line(j++,Qx,Qy));
+			r.sqr();
+		}
+		r.smul(P.line(j++,Qx,Qy));
+
+/* R-ate fixup */
+		r.conj();
+		r.smul(P.line(j++,Qx,Qy));
+		r.smul(P.line(j++,Qx,Qy));
+
+		return r;
+	}
+
+/* Optimal R-ate double pairing e(P,Q).e(R,S), with the line functions of P and R already computed */
+	public static FP12 ate2(PreparedG2 P,ECP Q,PreparedG2 R,ECP S)
+	{
+		Q.affine();
+		S.affine();
+		FP Qx=new FP(Q.getx());
+		FP Qy=new FP(Q.gety());
+		FP Sx=new FP(S.getx());
+		FP Sy=new FP(S.gety());
+		FP12 r=new FP12(1);
+		int j=0;
+
+		BIG n=PreparedG2.loopCount();
+		for (int i=n.nbits()-2;i>=1;i--)
+		{
+			r.smul(P.line(j,Qx,Qy));
+			r.smul(R.line(j++,Sx,Sy));
+			if (n.bit(i)==1)
+			{
+				r.smul(P.line(j,Qx,Qy));
+				r.smul(R.line(j++,Sx,Sy));
+			}
+			r.sqr();
+		}
+		r.smul(P.line(j,Qx,Qy));
+		r.smul(R.line(j++,Sx,Sy));
+
+/* R-ate fixup */
+		r.conj();
+		r.smul(P.line(j,Qx,Qy));
+		r.smul(P.line(j+1,Qx,Qy));
+		r.smul(R.line(j,Sx,Sy));
+		r.smul(R.line(j+1,Sx,Sy));
+
+		return r;
+	}
+
 /* final exponentiation - keep separate for multi-pairings and to avoid thrashing stack */
 	public static FP12 fexp(FP12 m)
 	{
 		FP2 f=new FP2(new BIG(ROM.CURVE_Fra),new BIG(ROM.CURVE_Frb));
-		BIG x=new BIG(ROM.CURVE_Bnx);
 		FP12 r=new FP12(m);
 		FP12 x0,x1,x2,x3,x4,x5;
 
@@ -238,15 +381,15 @@ public final class PAIR {
 		x0.frob(f);
 		x1=new FP12(r);
 		x1.conj();
-		x4=r.pow(x);
+		x4=r.pow(XNAF);
 
 		x3=new FP12(x4);
 		x3.frob(f);
 
-		x2=x4.pow(x);
+		x2=x4.pow(XNAF);
 
 		x5=new FP12(x2); x5.conj();
-		lv=x2.pow(x);
+		lv=x2.pow(XNAF);
 
 		x2.frob(f);
 		r.copy(x2); r.conj();
@@ -0,0 +1,83 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* AMCL BN Curve - G2 point with its Miller loop line functions precomputed */
+/* For fixed pairing arguments, like the generator and a server secret. See PAIR.ate(PreparedG2,ECP) */
+
+public final class PreparedG2 {
+	private final FP2[][] lines; /* in the order the Miller loop uses them */
+
+/* Miller loop count 6x-2 */
+	static BIG loopCount()
+	{
+		BIG n=new BIG(ROM.CURVE_Bnx);
+		n.pmul(6); n.dec(2); n.norm();
+		return n;
+	}
+
+/* Runs the Miller loop of PAIR.ate on P, keeping each line but not evaluating it */
+	public PreparedG2(ECP2 P)
+	{
+		FP2 f=new FP2(new BIG(ROM.CURVE_Fra),new BIG(ROM.CURVE_Frb));
+		BIG n=loopCount();
+		ECP2 Q=new ECP2();
+		ECP2 A=new ECP2();
+		ECP2 K=new ECP2();
+		int nb=n.nbits();
+		int i,j=0;
+
+		Q.copy(P);
+		Q.affine();
+		A.copy(Q);
+
+		int m=nb+1;
+		for (i=nb-2;i>=1;i--) m+=n.bit(i);
+		lines=new FP2[m][];
+
+		for (i=nb-2;i>=1;i--)
+		{
+			lines[j++]=PAIR.lineCoefficients(A,A);
+			if (n.bit(i)==1)
+				lines[j++]=PAIR.lineCoefficients(A,Q);
+		}
+		lines[j++]=PAIR.lineCoefficients(A,A);
+
+/* R-ate fixup */
+		K.copy(Q);
+		K.frob(f);
+		A.neg();
+		lines[j++]=PAIR.lineCoefficients(A,K);
+		K.frob(f);
+		K.neg();
+		lines[j++]=PAIR.lineCoefficients(A,K);
+	}
+
+/* i-th line evaluated at the affine G1 point (Qx,Qy) */
+	FP12 line(int i,FP Qx,FP Qy)
+	{
+		FP2[] L=lines[i];
+		if (L==null) return new FP12(1);
+		FP2 a=new FP2(L[0]);
+		FP2 b=new FP2(L[2]);
+		a.pmul(Qy);
+		b.pmul(Qx);
+		return new FP12(new FP4(a,L[1]),new FP4(b),new FP4(0));
+	}
+}
@@ -30,6 +30,9 @@ public class ROM
 	public static final int MONTGOMERY=2;
 /* ...to here */
 
+/*** Enter the name of the curve selected below, by which CurveContext.get finds it ***/
+	public static final String CURVE_NAME="BNCX";
+
 /*** Enter Some Field details here  ***/
 // BN Curve
 	public static final int MODBITS=254; /* Number of bits in Modulus */
@@ -0,0 +1,74 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* The CurveContext of the curve selected in ROM */
+
+public final class ROMContext extends CurveContext
+{
+	public ROMContext()
+	{
+		super(ROM.CURVE_NAME,ROM.MODBITS,ROM.MODTYPE,ROM.CURVETYPE,ECDH.EFS,ECDH.EGS);
+	}
+
+	private static byte[] bytes(long[] x)
+	{
+		byte[] b=new byte[ROM.MODBYTES];
+		new BIG(x).toBytes(b);
+		return b;
+	}
+
+	public byte[] modulus() {return bytes(ROM.Modulus);}
+	public long MConst() {return ROM.MConst;}
+	public int CURVE_A() {return ROM.CURVE_A;}
+	public byte[] CURVE_B() {return bytes(ROM.CURVE_B);}
+	public byte[] CURVE_Order() {return bytes(ROM.CURVE_Order);}
+	public byte[] CURVE_Gx() {return bytes(ROM.CURVE_Gx);}
+	public byte[] CURVE_Gy() {return bytes(ROM.CURVE_Gy);}
+
+	public int KEY_PAIR_GENERATE(RAND RNG,byte[] S,byte[] W)
+	{
+		return ECDH.KEY_PAIR_GENERATE(RNG,S,W);
+	}
+
+	public int PUBLIC_KEY_VALIDATE(boolean full,byte[] W)
+	{
+		return ECDH.PUBLIC_KEY_VALIDATE(full,W);
+	}
+
+	public int ECPSVDP_DH(byte[] S,byte[] WD,byte[] Z)
+	{
+		return ECDH.ECPSVDP_DH(S,WD,Z);
+	}
+
+	public int ECPSP_DSA(RAND RNG,byte[] S,byte[] F,byte[] C,byte[] D)
+	{
+		return ECDH.ECPSP_DSA(RNG,S,F,C,D);
+	}
+
+	public int ECPVP_DSA(byte[] W,byte[] F,byte[] C,byte[] D)
+	{
+		return ECDH.ECPVP_DSA(W,F,C,D);
+	}
+
+	public int[] ECPVP_DSA_BATCH(RAND RNG,byte[][] W,byte[][] F,byte[][] C,byte[][] D)
+	{
+		return ECDH.ECPVP_DSA_BATCH(RNG,W,F,C,D);
+	}
+}
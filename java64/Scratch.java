@@ -0,0 +1,85 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+
+/* Per-thread temporaries for the field and curve arithmetic, so that the hot path does not allocate */
+/* Each class has its own slots, and only uses them in methods that do not call another method of the same class that uses them */
+
+final class Scratch {
+	private static final ThreadLocal<Scratch> LOCAL=new ThreadLocal<Scratch>()
+	{
+		protected Scratch initialValue()
+		{
+			return new Scratch();
+		}
+	};
+
+/* used by BIG and FP */
+	final DBIG d=new DBIG(0);
+	final BIG m=new BIG(0);
+	final BIG t=new BIG(0);
+	final FP n=new FP();
+
+/* used by FP2, FP4 and FP12 */
+	final FP[] fp=slots(new FP[4]);
+	final FP2[] fp2=slots(new FP2[4]);
+	final FP4[] fp4=slots(new FP4[6]);
+	final FP2[] fp12=slots(new FP2[2]);
+
+/* unreduced products, used by FP2 and FP4 */
+	final DBIG[] lazy2=slots(new DBIG[3]);
+	final DBIG[] lazy4=slots(new DBIG[6]);
+
+/* used by ECP and ECP2 */
+	final FP[] ecp=slots(new FP[8]);
+	final FP2[] ecp2=slots(new FP2[5]);
+
+	private Scratch() {}
+
+/* return the calling thread's temporaries */
+	static Scratch get()
+	{
+		return LOCAL.get();
+	}
+
+	private static FP[] slots(FP[] s)
+	{
+		for (int i=0;i<s.length;i++) s[i]=new FP();
+		return s;
+	}
+
+	private static FP2[] slots(FP2[] s)
+	{
+		for (int i=0;i<s.length;i++) s[i]=new FP2();
+		return s;
+	}
+
+	private static DBIG[] slots(DBIG[] s)
+	{
+		for (int i=0;i<s.length;i++) s[i]=new DBIG(0);
+		return s;
+	}
+
+	private static FP4[] slots(FP4[] s)
+	{
+		for (int i=0;i<s.length;i++) s[i]=new FP4();
+		return s;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* The field operations of one curve, for FieldBenchmark. The build copies this file into the package of each curve it benchmarks */
+
+public final class FieldOps implements FieldBenchmark.Field
+{
+	private final FP a,b;
+	private final DBIG d,e;
+	private final BIG r;
+
+	public FieldOps()
+	{
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+1);
+		RAND rng=new RAND();
+		rng.clean();
+		rng.seed(100,raw);
+		BIG p=new BIG(ROM.Modulus);
+
+		a=new FP(BIG.randomnum(p,rng));
+		b=new FP(BIG.randomnum(p,rng));
+		d=BIG.mul(BIG.randomnum(p,rng),BIG.randomnum(p,rng));
+		e=new DBIG(0);
+		r=new BIG(0);
+	}
+
+	public String modtype()
+	{
+		return (ROM.MODTYPE==ROM.PSEUDO_MERSENNE)?"PSEUDO_MERSENNE":(ROM.MODTYPE==ROM.MONTGOMERY_FRIENDLY)?"MONTGOMERY_FRIENDLY":"NOT_SPECIAL";
+	}
+
+	public Object mul()
+	{
+		a.mul(b);
+		return a;
+	}
+
+	public Object sqr()
+	{
+		a.sqr();
+		return a;
+	}
+
+	public Object inverse()
+	{
+		a.inverse();
+		return a;
+	}
+
+	public Object sqrt()
+	{
+		return b.sqrt();
+	}
+
+/* from a fresh copy of the same product each time */
+	public Object mod()
+	{
+		System.arraycopy(d.w,0,e.w,0,ROM.DNLEN);
+		BIG.mod(e,r);
+		return r;
+	}
+}
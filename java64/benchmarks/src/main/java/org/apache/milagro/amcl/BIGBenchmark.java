@@ -0,0 +1,82 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH benchmarks for the BIG/DBIG limb kernels */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class BIGBenchmark
+{
+	BIG a,b;
+	DBIG d;
+
+	@Setup
+	public void setup()
+	{
+		BenchState s=new BenchState();
+		a=s.big();
+		b=s.big();
+		d=BIG.mul(a,b);
+	}
+
+	@Benchmark
+	public DBIG mul()
+	{
+		return BIG.mul(a,b);
+	}
+
+	@Benchmark
+	public DBIG sqr()
+	{
+		return BIG.sqr(a);
+	}
+
+/* BIG.mod(DBIG) overwrites its argument, so the cost includes one DBIG copy - see dcopy */
+	@Benchmark
+	public BIG mod()
+	{
+		return BIG.mod(new DBIG(d));
+	}
+
+	@Benchmark
+	public DBIG dcopy()
+	{
+		return new DBIG(d);
+	}
+}
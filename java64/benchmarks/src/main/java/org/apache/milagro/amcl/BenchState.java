@@ -0,0 +1,81 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Deterministic random field elements shared by the benchmarks */
+
+package org.apache.milagro.amcl;
+
+final class BenchState
+{
+	private final RAND rng;
+	private final BIG p;
+
+	BenchState()
+	{
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+1);
+		rng=new RAND();
+		rng.clean();
+		rng.seed(100,raw);
+		p=new BIG(ROM.Modulus);
+	}
+
+	RAND rng()
+	{
+		return rng;
+	}
+
+/* random BIG less than the modulus */
+	BIG big()
+	{
+		return BIG.randomnum(p,rng);
+	}
+
+	FP fp()
+	{
+		return new FP(big());
+	}
+
+	FP2 fp2()
+	{
+		return new FP2(big(),big());
+	}
+
+	FP4 fp4()
+	{
+		return new FP4(fp2(),fp2());
+	}
+
+	FP12 fp12()
+	{
+		return new FP12(fp4(),fp4(),fp4());
+	}
+
+/* G1 generator and G2 generator from ROM */
+	static ECP g1()
+	{
+		return new ECP(new BIG(ROM.CURVE_Gx),new BIG(ROM.CURVE_Gy));
+	}
+
+	static ECP2 g2()
+	{
+		return new ECP2(new FP2(new BIG(ROM.CURVE_Pxa),new BIG(ROM.CURVE_Pxb)),new FP2(new BIG(ROM.CURVE_Pya),new BIG(ROM.CURVE_Pyb)));
+	}
+}
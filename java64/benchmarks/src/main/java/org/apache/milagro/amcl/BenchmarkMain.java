@@ -0,0 +1,104 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Entry point for the AMCL JMH benchmarks - always attaches the GC profiler */
+/* -tsweep 1,2,4,8 repeats the selected benchmarks at each thread count and prints a throughput summary */
+
+package org.apache.milagro.amcl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public final class BenchmarkMain
+{
+/* Accepts the usual JMH command line, e.g. "FP12Benchmark -f 1 -wi 3 -i 5" */
+	public static void main(String[] args) throws Exception
+	{
+		List<String> jmh=new ArrayList<String>();
+		int[] sweep=null;
+		for (int i=0;i<args.length;i++)
+		{
+			if (args[i].equals("-tsweep") && i+1<args.length)
+			{
+				String[] t=args[++i].split(",");
+				sweep=new int[t.length];
+				for (int j=0;j<t.length;j++) sweep[j]=Integer.parseInt(t[j].trim());
+			}
+			else jmh.add(args[i]);
+		}
+		args=jmh.toArray(new String[jmh.size()]);
+
+		CommandLineOptions cmd=new CommandLineOptions(args);
+		if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats())
+		{
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		if (sweep==null)
+		{
+			new Runner(options(cmd,0)).run();
+			return;
+		}
+
+		List<Collection<RunResult>> runs=new ArrayList<Collection<RunResult>>();
+		for (int n : sweep)
+			runs.add(new Runner(options(cmd,n)).run());
+
+		System.out.println();
+		System.out.println("Thread sweep summary (score per thread count)");
+		for (int k=0;k<runs.get(0).size();k++)
+		{
+			String label=null;
+			StringBuilder line=new StringBuilder();
+			for (int i=0;i<sweep.length;i++)
+			{
+				RunResult r=new ArrayList<RunResult>(runs.get(i)).get(k);
+				Result p=r.getPrimaryResult();
+				if (label==null)
+				{
+					label=r.getParams().getBenchmark();
+					for (String key : r.getParams().getParamsKeys())
+						label+=" "+key+"="+r.getParams().getParam(key);
+					line.append(label).append(" [").append(p.getScoreUnit()).append("]");
+				}
+				line.append(String.format("  %dT=%.1f",sweep[i],p.getScore()));
+			}
+			System.out.println(line);
+		}
+	}
+
+/* threads<=0 leaves the thread count to the command line and annotations */
+	private static Options options(CommandLineOptions cmd,int threads)
+	{
+		OptionsBuilder opt=new OptionsBuilder();
+		opt.parent(cmd).addProfiler(GCProfiler.class);
+		if (threads>0) opt.threads(threads);
+		return opt.build();
+	}
+}
@@ -0,0 +1,162 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH benchmarks for ECDH key generation and ECDSA signing and verification */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class ECDHBenchmark
+{
+	RAND rng;
+	BIG e,f;
+	ECP G,Q;
+	byte[] S=new byte[ECDH.EGS];
+	byte[] W=new byte[2*ECDH.EFS+1];
+	byte[] M=new byte[64];
+	byte[] C=new byte[ECDH.EGS];
+	byte[] D=new byte[ECDH.EGS];
+
+/* signatures from different keys, for batch verification */
+	static final int BATCH=100;
+	byte[][] BW=new byte[BATCH][2*ECDH.EFS+1];
+	byte[][] BF=new byte[BATCH][32];
+	byte[][] BC=new byte[BATCH][ECDH.EGS];
+	byte[][] BD=new byte[BATCH][ECDH.EGS];
+
+	@Setup
+	public void setup()
+	{
+		BenchState s=new BenchState();
+		rng=s.rng();
+		e=BIG.randomnum(new BIG(ROM.CURVE_Order),rng);
+		f=BIG.randomnum(new BIG(ROM.CURVE_Order),rng);
+		G=BenchState.g1();
+		Q=G.mul(f);
+		ECPTable.generator();
+		ECDH.KEY_PAIR_GENERATE(rng,S,W);
+		for (int i=0;i<M.length;i++) M[i]=(byte)i;
+		ECDH.ECPSP_DSA(rng,S,M,C,D);
+		for (int i=0;i<BATCH;i++)
+		{
+			byte[] K=new byte[ECDH.EGS];
+			ECDH.KEY_PAIR_GENERATE(rng,K,BW[i]);
+			BF[i][0]=(byte)i;
+			ECDH.ECPSP_DSA(rng,K,BF[i],BC[i],BD[i]);
+		}
+	}
+
+/* generator multiplication with a fresh window table */
+	@Benchmark
+	public ECP mulG()
+	{
+		ECP P=new ECP();
+		P.copy(G);
+		return P.mul(e);
+	}
+
+/* generator multiplication with the fixed base table */
+	@Benchmark
+	public ECP tableMulG()
+	{
+		return ECPTable.generator().mul(e);
+	}
+
+/* e.G+f.Q in constant time */
+	@Benchmark
+	public ECP mul2()
+	{
+		ECP P=new ECP();
+		P.copy(G);
+		return P.mul2(e,Q,f);
+	}
+
+/* e.G+f.Q in variable time, with and without the generator table */
+	@Benchmark
+	public ECP mul2vt()
+	{
+		ECP P=new ECP();
+		P.copy(G);
+		return P.mul2vt(e,Q,f);
+	}
+
+	@Benchmark
+	public ECP tableMul2vt()
+	{
+		return ECPTable.generator().mul2vt(e,Q,f);
+	}
+
+	@Benchmark
+	public byte[] keyPair()
+	{
+		ECDH.KEY_PAIR_GENERATE(rng,S,W);
+		return W;
+	}
+
+	@Benchmark
+	public byte[] sign()
+	{
+		ECDH.ECPSP_DSA(rng,S,M,C,D);
+		return D;
+	}
+
+	@Benchmark
+	public int verify()
+	{
+		return ECDH.ECPVP_DSA(W,M,C,D);
+	}
+
+/* per signature cost of verifying BATCH signatures one at a time, and as a batch */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int verifyEach()
+	{
+		int r=0;
+		for (int i=0;i<BATCH;i++)
+			r|=ECDH.ECPVP_DSA(BW[i],BF[i],BC[i],BD[i]);
+		return r;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int[] verifyBatch()
+	{
+		return ECDH.ECPVP_DSA_BATCH(rng,BW,BF,BC,BD);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH benchmarks for the Fp^2 and Fp^4 extension fields */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class ExtensionFieldBenchmark
+{
+	FP2 a2,b2;
+	FP4 a4,b4;
+
+	@Setup
+	public void setup()
+	{
+		BenchState s=new BenchState();
+		a2=s.fp2(); b2=s.fp2();
+		a4=s.fp4(); b4=s.fp4();
+	}
+
+	@Benchmark
+	public FP2 fp2mul()
+	{
+		a2.mul(b2);
+		return a2;
+	}
+
+	@Benchmark
+	public FP4 fp4mul()
+	{
+		a4.mul(b4);
+		return a4;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH benchmarks for Fp^12 - the pairing target group */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class FP12Benchmark
+{
+	FP12 a,b,line,u;
+	BIG x;
+	byte[] xnaf;
+
+	@Setup
+	public void setup()
+	{
+		BenchState s=new BenchState();
+		a=s.fp12();
+		b=s.fp12();
+
+/* smul expects the sparse form produced by the Miller loop line function */
+		ECP Q=BenchState.g1();
+		ECP2 P=BenchState.g2();
+		ECP2 A=new ECP2(); A.copy(P);
+		line=PAIR.line(A,A,new FP(Q.getx()),new FP(Q.gety()));
+
+/* usqr is only valid in the cyclotomic subgroup, i.e. after the final exponentiation */
+		u=PAIR.fexp(PAIR.ate(P,Q));
+
+/* the curve parameter, the exponent of the final exponentiation's hard part */
+		x=new BIG(ROM.CURVE_Bnx);
+		byte[] t=new byte[ROM.NLEN*ROM.BASEBITS+1];
+		xnaf=new byte[ECP.wnaf(x,2,t)];
+		System.arraycopy(t,0,xnaf,0,xnaf.length);
+	}
+
+	@Benchmark
+	public FP12 mul()
+	{
+		a.mul(b);
+		return a;
+	}
+
+	@Benchmark
+	public FP12 smul()
+	{
+		a.smul(line);
+		return a;
+	}
+
+	@Benchmark
+	public FP12 usqr()
+	{
+		u.usqr();
+		return u;
+	}
+
+	@Benchmark
+	public FP12 powx()
+	{
+		return u.pow(x);
+	}
+
+	@Benchmark
+	public FP12 nafpowx()
+	{
+		return u.pow(xnaf);
+	}
+
+	@Benchmark
+	public FP12 inverse()
+	{
+		a.inverse();
+		return a;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH benchmarks for arithmetic mod p */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class FPBenchmark
+{
+	FP a,b,s;
+
+	@Setup
+	public void setup()
+	{
+		BenchState st=new BenchState();
+		a=st.fp();
+		b=st.fp();
+		s=st.fp(); s.sqr();  /* a quadratic residue */
+	}
+
+/* mul, sqr and inverse work in place - a simply walks around the field */
+	@Benchmark
+	public FP mul()
+	{
+		a.mul(b);
+		return a;
+	}
+
+	@Benchmark
+	public FP sqr()
+	{
+		a.sqr();
+		return a;
+	}
+
+	@Benchmark
+	public FP inverse()
+	{
+		a.inverse();
+		return a;
+	}
+
+	@Benchmark
+	public FP sqrt()
+	{
+		return s.sqrt();
+	}
+}
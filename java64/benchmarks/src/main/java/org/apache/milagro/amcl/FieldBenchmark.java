@@ -0,0 +1,99 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH benchmarks for arithmetic mod p on curves with each kind of modulus - see FieldOps */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class FieldBenchmark
+{
+/* implemented by FieldOps in the package of each curve */
+	public interface Field
+	{
+		String modtype();
+		Object mul();
+		Object sqr();
+		Object mod();
+		Object inverse();
+		Object sqrt();
+	}
+
+/* ED25519 and MS255W are pseudo-Mersenne, MF254W Montgomery-friendly and NIST256 a general modulus */
+	@Param({"ED25519","MS255W","MF254W","NIST256"})
+	String curve;
+
+	Field f;
+
+	@Setup
+	public void setup() throws ReflectiveOperationException
+	{
+		f=(Field)Class.forName(FieldBenchmark.class.getPackage().getName()+"."+curve+".FieldOps").getDeclaredConstructor().newInstance();
+	}
+
+	@Benchmark
+	public Object mul()
+	{
+		return f.mul();
+	}
+
+	@Benchmark
+	public Object sqr()
+	{
+		return f.sqr();
+	}
+
+	@Benchmark
+	public Object mod()
+	{
+		return f.mod();
+	}
+
+	@Benchmark
+	public Object inverse()
+	{
+		return f.inverse();
+	}
+
+	@Benchmark
+	public Object sqrt()
+	{
+		return f.sqrt();
+	}
+}
@@ -0,0 +1,116 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+
+/* The limb kernel that BIG and DBIG used before Math.multiplyHigh, kept as a baseline for KernelBenchmark */
+/* Each 56-bit limb product is built from four 28-bit half products */
+
+package org.apache.milagro.amcl;
+
+final class HalfWordKernel
+{
+	private HalfWordKernel() {}
+
+/* set w[i]+=a*b+c, and return high part */
+	static long muladd(long[] w,long a,long b,long c,int i)
+	{
+		long x0,x1,y0,y1;
+		x0=a&ROM.HMASK;
+		x1=(a>>ROM.HBITS);
+		y0=b&ROM.HMASK;
+		y1=(b>>ROM.HBITS);
+		long bot=x0*y0;
+		long top=x1*y1;
+		long mid=x0*y1+x1*y0;
+		x0=mid&ROM.HMASK;
+		x1=(mid>>ROM.HBITS);
+		bot+=x0<<ROM.HBITS; bot+=c; bot+=w[i];
+		top+=x1;
+		long carry=bot>>ROM.BASEBITS;
+		bot&=ROM.MASK;
+		top+=carry;
+		w[i]=bot;
+		return top;
+	}
+
+/* c=a*b, a and b normalised */
+	static void mul(long[] a,long[] b,long[] c)
+	{
+		long carry;
+		for (int i=0;i<ROM.DNLEN;i++) c[i]=0;
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			carry=0;
+			for (int j=0;j<ROM.NLEN;j++)
+				carry=muladd(c,a[i],b[j],carry,i+j);
+			c[ROM.NLEN+i]=carry;
+		}
+	}
+
+/* c=a^2, a normalised */
+	static void sqr(long[] a,long[] c)
+	{
+		long carry;
+		for (int i=0;i<ROM.DNLEN;i++) c[i]=0;
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			carry=0;
+			for (int j=i+1;j<ROM.NLEN;j++)
+				carry=muladd(c,2*a[i],a[j],carry,i+j);
+			c[ROM.NLEN+i]=carry;
+		}
+		for (int i=0;i<ROM.NLEN;i++)
+			c[2*i+1]+=muladd(c,a[i],a[i],0,2*i);
+
+		long d,cy=0;
+		for (int i=0;i<ROM.DNLEN-1;i++)
+		{
+			d=c[i]+cy;
+			c[i]=d&ROM.MASK;
+			cy=d>>ROM.BASEBITS;
+		}
+		c[ROM.DNLEN-1]+=cy;
+	}
+
+/* Montgomery reduction of d into b, for a modulus of type NOT_SPECIAL. d is destroyed */
+	static void mod(long[] d,long[] b)
+	{
+		long m,carry;
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			m=(ROM.MConst*d[i])&ROM.MASK;
+			carry=0;
+			for (int j=0;j<ROM.NLEN;j++)
+				carry=muladd(d,m,ROM.Modulus[j],carry,i+j);
+			d[ROM.NLEN+i]+=carry;
+		}
+		for (int i=0;i<ROM.NLEN;i++)
+			b[i]=d[ROM.NLEN+i];
+
+		long t,cy=0;
+		for (int i=0;i<ROM.NLEN-1;i++)
+		{
+			t=b[i]+cy;
+			b[i]=t&ROM.MASK;
+			cy=t>>ROM.BASEBITS;
+		}
+		b[ROM.NLEN-1]+=cy;
+	}
+}
@@ -0,0 +1,165 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+
+/* JMH comparison of the limb kernels - BIG.mul, BIG.sqr, BIG.mod(DBIG) and BIG.norm against the loops and the half-word kernel they replaced */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class KernelBenchmark
+{
+	BIG a,b,r;
+	DBIG d,e;
+	long[] aw,bw,rw,dw,ew,nw,sw;
+
+	@Setup
+	public void setup()
+	{
+		BenchState s=new BenchState();
+		a=s.fp().redc();
+		b=s.fp().redc();
+		r=new BIG(0);
+		d=BIG.mul(a,b);
+		e=new DBIG(0);
+		aw=new long[ROM.NLEN];
+		bw=new long[ROM.NLEN];
+		rw=new long[ROM.NLEN];
+		dw=new long[ROM.DNLEN];
+		ew=new long[ROM.DNLEN];
+		nw=new long[ROM.NLEN];
+		sw=new long[ROM.NLEN];
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			aw[i]=a.get(i);
+			bw[i]=b.get(i);
+			sw[i]=aw[i]+bw[i];
+		}
+		for (int i=0;i<ROM.DNLEN;i++)
+			dw[i]=d.get(i);
+	}
+
+	@Benchmark
+	public DBIG mul()
+	{
+		BIG.mul(a,b,e);
+		return e;
+	}
+
+/* the loops normalise their inputs first, as BIG.mul and BIG.sqr do */
+	@Benchmark
+	public long[] loopMul()
+	{
+		LoopKernel.norm(aw,ROM.NLEN);
+		LoopKernel.norm(bw,ROM.NLEN);
+		LoopKernel.mul(aw,bw,ew);
+		return ew;
+	}
+
+	@Benchmark
+	public long[] halfWordMul()
+	{
+		HalfWordKernel.mul(aw,bw,ew);
+		return ew;
+	}
+
+	@Benchmark
+	public DBIG sqr()
+	{
+		BIG.sqr(a,e);
+		return e;
+	}
+
+	@Benchmark
+	public long[] loopSqr()
+	{
+		LoopKernel.norm(aw,ROM.NLEN);
+		LoopKernel.sqr(aw,ew);
+		return ew;
+	}
+
+	@Benchmark
+	public long[] halfWordSqr()
+	{
+		HalfWordKernel.sqr(aw,ew);
+		return ew;
+	}
+
+/* all the reductions start from a fresh copy of the same product */
+	@Benchmark
+	public BIG mod()
+	{
+		System.arraycopy(dw,0,e.w,0,ROM.DNLEN);
+		BIG.mod(e,r);
+		return r;
+	}
+
+	@Benchmark
+	public long[] loopMod()
+	{
+		System.arraycopy(dw,0,ew,0,ROM.DNLEN);
+		LoopKernel.monty(ew,rw);
+		return rw;
+	}
+
+	@Benchmark
+	public long[] halfWordMod()
+	{
+		System.arraycopy(dw,0,ew,0,ROM.DNLEN);
+		HalfWordKernel.mod(ew,rw);
+		return rw;
+	}
+
+/* normalise the sum of a and b */
+	@Benchmark
+	public BIG norm()
+	{
+		for (int i=0;i<ROM.NLEN;i++)
+			r.set(i,sw[i]);
+		r.norm();
+		return r;
+	}
+
+	@Benchmark
+	public long[] loopNorm()
+	{
+		System.arraycopy(sw,0,nw,0,ROM.NLEN);
+		LoopKernel.norm(nw,ROM.NLEN);
+		return nw;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* The loop forms of the limb kernels in BIG and DBIG, which the generated Kernel replaced. Kept as a baseline for KernelBenchmark */
+
+package org.apache.milagro.amcl;
+
+final class LoopKernel
+{
+	private LoopKernel() {}
+
+/* a*b>>BASEBITS, given lo=a*b */
+	static long hiword(long a,long b,long lo)
+	{
+		return (Math.multiplyHigh(a,b)<<(64-ROM.BASEBITS))|(lo>>>ROM.BASEBITS);
+	}
+
+/* normalise w, of n limbs, and return the top limb */
+	static long norm(long[] w,int n)
+	{
+		long d,carry=0;
+		for (int i=0;i<n-1;i++)
+		{
+			d=w[i]+carry;
+			w[i]=d&ROM.MASK;
+			carry=d>>ROM.BASEBITS;
+		}
+		w[n-1]=(w[n-1]+carry);
+		return w[n-1];
+	}
+
+/* z=x*y, x and y normalised */
+	static void mul(long[] x,long[] y,long[] z)
+	{
+		long t;
+		for (int i=0;i<ROM.DNLEN;i++) z[i]=0;
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			for (int j=0;j<ROM.NLEN;j++)
+			{
+				t=x[i]*y[j];
+				z[i+j]+=t&ROM.MASK;
+				z[i+j+1]+=hiword(x[i],y[j],t);
+			}
+		}
+		norm(z,ROM.DNLEN);
+	}
+
+/* z=x^2, x normalised */
+	static void sqr(long[] x,long[] z)
+	{
+		long t,u;
+		for (int i=0;i<ROM.DNLEN;i++) z[i]=0;
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			t=x[i]*x[i];
+			z[2*i]+=t&ROM.MASK;
+			z[2*i+1]+=hiword(x[i],x[i],t);
+			u=2*x[i];
+			for (int j=i+1;j<ROM.NLEN;j++)
+			{
+				t=u*x[j];
+				z[i+j]+=t&ROM.MASK;
+				z[i+j+1]+=hiword(u,x[j],t);
+			}
+		}
+		norm(z,ROM.DNLEN);
+	}
+
+/* b=z reduced by Montgomery's method. z is destroyed */
+	static void monty(long[] z,long[] b)
+	{
+		long t,m,carry=0;
+		long[] p=ROM.Modulus;
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			m=(ROM.MConst*(z[i]+carry))&ROM.MASK;
+			for (int j=0;j<ROM.NLEN;j++)
+			{
+				t=m*p[j];
+				z[i+j]+=t&ROM.MASK;
+				z[i+j+1]+=hiword(m,p[j],t);
+			}
+			carry=(z[i]+carry)>>ROM.BASEBITS;
+		}
+		for (int i=ROM.NLEN;i<ROM.DNLEN-1;i++)
+		{
+			t=z[i]+carry;
+			b[i-ROM.NLEN]=t&ROM.MASK;
+			carry=t>>ROM.BASEBITS;
+		}
+		b[ROM.NLEN-1]=z[ROM.DNLEN-1]+carry;
+	}
+
+/* b=z reduced for a MONTGOMERY_FRIENDLY modulus. z is destroyed */
+	static void mfred(long[] z,long[] b)
+	{
+		long c=ROM.MConst-1;
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			long lo=z[i]*c;
+			long bot=(lo&ROM.MASK)+z[i]+z[ROM.NLEN+i-1];
+			z[ROM.NLEN+i-1]=bot&ROM.MASK;
+			z[ROM.NLEN+i]+=hiword(z[i],c,lo)+(bot>>ROM.BASEBITS);
+		}
+		for (int i=0;i<ROM.NLEN;i++)
+			b[i]=z[ROM.NLEN+i];
+		norm(b,ROM.NLEN);
+	}
+}
@@ -0,0 +1,202 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH throughput benchmarks for the MPIN protocol steps */
+/* Inputs are replayed from the verified test vectors in testVectors/mpin - see MPINCorpus */
+
+package org.apache.milagro.amcl;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=5,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+public class MPINBenchmark
+{
+	@State(Scope.Benchmark)
+	public static class Corpus
+	{
+		@Param({"BNCX","BNCXOnePass"})
+		public String vectors;
+
+		MPINCorpus corpus;
+
+		@Setup
+		public void load() throws IOException
+		{
+			corpus=new MPINCorpus(vectors);
+		}
+	}
+
+/* Per thread output buffers, and a cursor that walks round the corpus */
+	@State(Scope.Thread)
+	public static class Session
+	{
+		int next;
+		byte[] SEC=new byte[MPINCorpus.G1S];
+		byte[] xID=new byte[MPINCorpus.G1S];
+		byte[] xCID=new byte[MPINCorpus.G1S];
+		byte[] HID=new byte[MPINCorpus.G1S];
+		byte[] HTID=new byte[MPINCorpus.G1S];
+		byte[] E=new byte[MPINCorpus.GTS];
+		byte[] F=new byte[MPINCorpus.GTS];
+		byte[] G1=new byte[MPINCorpus.GTS];
+		byte[] G2=new byte[MPINCorpus.GTS];
+		byte[] K=new byte[MPIN.PAS];
+
+		@Setup
+		public void start()
+		{
+			next=(int)(Thread.currentThread().getId()*7);
+		}
+
+		MPINCorpus.Vector good(Corpus c)
+		{
+			return c.corpus.good.get((next++&0x7fffffff)%c.corpus.good.size());
+		}
+
+		MPINCorpus.Vector bad(Corpus c)
+		{
+			return c.corpus.bad.get((next++&0x7fffffff)%c.corpus.bad.size());
+		}
+	}
+
+	@Benchmark
+	public byte[] client1(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		MPIN.CLIENT_1(v.date,v.ID,null,v.X,v.pin2,v.TOKEN,s.SEC,s.xID,s.xCID,v.PERMIT);
+		return s.SEC;
+	}
+
+/* CLIENT_2 works in place, so start from a copy of the client 1 output */
+	@Benchmark
+	public byte[] client2(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		System.arraycopy(v.SEC,0,s.SEC,0,MPINCorpus.G1S);
+		MPIN.CLIENT_2(v.X,v.Y,s.SEC);
+		return s.SEC;
+	}
+
+	@Benchmark
+	public byte[] server1(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		MPIN.SERVER_1(v.date,v.ID,s.HID,s.HTID);
+		return s.HTID;
+	}
+
+/* MPIN.SERVER_1 with an identity cache large enough to hold every vector */
+	@State(Scope.Benchmark)
+	public static class Cached
+	{
+		@Setup
+		public void on()
+		{
+			MPIN.setIDCache(new IDCache(1024,0));
+		}
+
+		@TearDown
+		public void off()
+		{
+			MPIN.setIDCache(null);
+		}
+	}
+
+	@Benchmark
+	public byte[] server1Cached(Corpus c,Session s,Cached k)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		MPIN.SERVER_1(v.date,v.ID,s.HID,s.HTID);
+		return s.HTID;
+	}
+
+/* the successful login path */
+	@Benchmark
+	public int server2(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		return MPIN.SERVER_2(v.date,v.HID,v.HTID,v.Y,v.SST,v.xID,v.xCID,v.V,s.E,s.F);
+	}
+
+/* the successful login path, with the server secret prepared once */
+	@Benchmark
+	public int server2Prepared(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		return MPIN.SERVER_2(v.date,v.HID,v.HTID,v.Y,v.sQ,v.xID,v.xCID,v.V,s.E,s.F);
+	}
+
+/* wrong PIN - includes the extra pairing that produces E and F for the kangaroos */
+	@Benchmark
+	public int server2BadPin(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.bad(c);
+		return MPIN.SERVER_2(v.date,v.HID,v.HTID,v.Y,v.SST,v.xID,v.xCID,v.V,s.E,s.F);
+	}
+
+	@Benchmark
+	public int kangaroo(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.bad(c);
+		return MPIN.KANGAROO(v.E,v.F);
+	}
+
+	@Benchmark
+	public byte[] precompute(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		MPIN.PRECOMPUTE(v.TOKEN,v.HCID,s.G1,s.G2);
+		return s.G2;
+	}
+
+	@Benchmark
+	public byte[] clientKey(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		MPIN.CLIENT_KEY(v.G1,v.G2,v.pin2,v.R,v.X,v.T,s.K);
+		return s.K;
+	}
+
+	@Benchmark
+	public byte[] serverKey(Corpus c,Session s)
+	{
+		MPINCorpus.Vector v=s.good(c);
+		MPIN.SERVER_KEY(v.Z,v.SST,v.W,v.xID,v.xCID,s.K);
+		return s.K;
+	}
+}
@@ -0,0 +1,171 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Replay corpus for the MPIN benchmarks, built from testVectors/mpin */
+/* Every vector is replayed once at load time and checked against the recorded outputs */
+
+package org.apache.milagro.amcl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+final class MPINCorpus
+{
+	static final int EFS=MPIN.EFS;
+	static final int EGS=MPIN.EGS;
+	static final int G1S=2*EFS+1; /* Group 1 Size */
+	static final int G2S=4*EFS;   /* Group 2 Size */
+	static final int GTS=12*EFS;  /* Group T Size */
+
+/* One authentication, with every intermediate value needed to replay any single step */
+	static final class Vector
+	{
+		int date,pin1,pin2,expected;
+		byte[] ID,HCID,SST,TOKEN,PERMIT,X,Y;
+		byte[] SEC,xID,xCID,V;      /* client outputs */
+		byte[] HID,HTID;            /* server pass 1 outputs */
+		byte[] E,F;                 /* only set for bad PIN vectors */
+		byte[] G1,G2,R,Z,W,T;       /* M-Pin Full key agreement */
+		PreparedG2 sQ;              /* SST, prepared once as a server would */
+	}
+
+	final List<Vector> good=new ArrayList<Vector>();
+	final List<Vector> bad=new ArrayList<Vector>();
+
+	static byte[] hex(String s)
+	{
+		byte[] b=new byte[s.length()/2];
+		for (int i=0;i<b.length;i++)
+			b[i]=(byte)Integer.parseInt(s.substring(2*i,2*i+2),16);
+		return b;
+	}
+
+	private static void check(boolean ok,int n,String what)
+	{
+		if (!ok) throw new IllegalStateException("test vector "+n+": "+what+" does not match");
+	}
+
+/* name is BNCX or BNCXOnePass */
+	MPINCorpus(String name) throws IOException
+	{
+		JsonNode root;
+		InputStream in=MPINCorpus.class.getResourceAsStream("/mpin/"+name+".json");
+		if (in==null) throw new IOException("no test vectors for "+name);
+		try
+		{
+			root=new ObjectMapper().readTree(in);
+		}
+		finally
+		{
+			in.close();
+		}
+
+		RAND rng=new RAND();
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+1);
+		rng.seed(100,raw);
+
+		for (JsonNode j : root)
+		{
+			int n=j.get("test_no").asInt();
+			Vector v=new Vector();
+			v.date=j.get("DATE").asInt();
+			v.pin1=j.get("PIN1").asInt();
+			v.pin2=j.get("PIN2").asInt();
+			v.expected=j.get("SERVER_OUTPUT").asInt();
+			v.ID=hex(j.get("MPIN_ID_HEX").asText());
+			v.SST=hex(j.get("SERVER_SECRET").asText());
+			v.sQ=new PreparedG2(ECP2.fromBytes(v.SST));
+			v.TOKEN=hex(j.get("TOKEN").asText());
+			v.PERMIT=hex(j.get("TIME_PERMIT").asText());
+			v.X=hex(j.get("X").asText());
+			v.HCID=MPIN.HASH_ID(v.ID);
+			check(Arrays.equals(v.HCID,hex(j.get("HASH_MPIN_ID_HEX").asText())),n,"HASH_ID");
+
+			v.SEC=new byte[G1S];
+			v.xID=new byte[G1S];
+			v.xCID=new byte[G1S];
+			check(MPIN.CLIENT_1(v.date,v.ID,null,v.X,v.pin2,v.TOKEN,v.SEC,v.xID,v.xCID,v.PERMIT)==0,n,"CLIENT_1");
+			check(Arrays.equals(v.xID,hex(j.get("U").asText())),n,"U");
+			check(Arrays.equals(v.xCID,hex(j.get("UT").asText())),n,"UT");
+
+			if (j.has("TimeValue"))
+			{ /* one pass - Y is derived from the time and xCID */
+				v.Y=new byte[EGS];
+				MPIN.GET_Y(j.get("TimeValue").asInt(),v.date!=0?v.xCID:v.xID,v.Y);
+				check(Arrays.equals(v.Y,hex(j.get("Y").asText())),n,"Y");
+			}
+			else v.Y=hex(j.get("Y").asText());
+
+			v.V=Arrays.copyOf(v.SEC,G1S);
+			check(MPIN.CLIENT_2(v.X,v.Y,v.V)==0,n,"CLIENT_2");
+			if (j.has("V"))
+			{
+				check(Arrays.equals(v.SEC,hex(j.get("SEC").asText())),n,"SEC");
+				check(Arrays.equals(v.V,hex(j.get("V").asText())),n,"V");
+			}
+			else check(Arrays.equals(v.V,hex(j.get("SEC").asText())),n,"SEC"); /* one pass records the final SEC */
+
+			v.HID=new byte[G1S];
+			v.HTID=new byte[G1S];
+			MPIN.SERVER_1(v.date,v.ID,v.HID,v.HTID);
+
+			byte[] E=new byte[GTS];
+			byte[] F=new byte[GTS];
+			int rtn=MPIN.SERVER_2(v.date,v.HID,v.HTID,v.Y,v.SST,v.xID,v.xCID,v.V,E,F);
+			check(rtn==v.expected,n,"SERVER_2");
+			check(MPIN.SERVER_2(v.date,v.HID,v.HTID,v.Y,v.sQ,v.xID,v.xCID,v.V,null,null)==rtn,n,"SERVER_2 prepared");
+
+			if (rtn==MPIN.BAD_PIN)
+			{
+				v.E=E;
+				v.F=F;
+				int d=MPIN.KANGAROO(v.E,v.F);
+				check(d==0 || d==v.pin2-v.pin1 || d==v.pin1-v.pin2,n,"KANGAROO"); /* 0 - the trap can miss */
+				bad.add(v);
+				continue;
+			}
+
+/* M-Pin Full - random values from a fixed seed, so every run is the same */
+			v.G1=new byte[GTS];
+			v.G2=new byte[GTS];
+			check(MPIN.PRECOMPUTE(v.TOKEN,v.HCID,v.G1,v.G2)==0,n,"PRECOMPUTE");
+			v.R=new byte[EGS];
+			v.Z=new byte[G1S];
+			MPIN.GET_G1_MULTIPLE(rng,1,v.R,v.HCID,v.Z);
+			v.W=new byte[EGS];
+			v.T=new byte[G1S];
+			MPIN.GET_G1_MULTIPLE(rng,0,v.W,v.date!=0?v.HTID:v.HID,v.T);
+
+			byte[] CK=new byte[MPIN.PAS];
+			byte[] SK=new byte[MPIN.PAS];
+			MPIN.CLIENT_KEY(v.G1,v.G2,v.pin2,v.R,v.X,v.T,CK);
+			MPIN.SERVER_KEY(v.Z,v.SST,v.W,v.xID,v.xCID,SK);
+			check(Arrays.equals(CK,SK),n,"CLIENT_KEY/SERVER_KEY");
+			good.add(v);
+		}
+	}
+}
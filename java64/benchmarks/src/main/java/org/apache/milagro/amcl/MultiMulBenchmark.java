@@ -0,0 +1,101 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+
+/* JMH benchmarks for multi-scalar multiplication - a loop of mul and add against ECP.multiMul and ECP2.multiMul */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+@State(Scope.Thread)
+public class MultiMulBenchmark
+{
+/* number of terms */
+	@Param({"2","8","32","128","512"})
+	public int n;
+
+	ECP[] P;
+	ECP2[] Q;
+	BIG[] k;
+
+	@Setup
+	public void setup()
+	{
+		BenchState s=new BenchState();
+		BIG r=new BIG(ROM.CURVE_Order);
+		P=new ECP[n];
+		Q=new ECP2[n];
+		k=new BIG[n];
+		for (int i=0;i<n;i++)
+		{
+			P[i]=PAIR.G1mul(BenchState.g1(),BIG.randomnum(r,s.rng()));
+			Q[i]=PAIR.G2mul(BenchState.g2(),BIG.randomnum(r,s.rng()));
+			k[i]=BIG.randomnum(r,s.rng());
+		}
+	}
+
+	@Benchmark
+	public ECP mulAdd()
+	{
+		ECP R=new ECP();
+		for (int i=0;i<n;i++)
+			R.add(P[i].mul(k[i]));
+		return R;
+	}
+
+	@Benchmark
+	public ECP multiMul()
+	{
+		return ECP.multiMul(P,k);
+	}
+
+	@Benchmark
+	public ECP2 mulAdd2()
+	{
+		ECP2 R=new ECP2();
+		for (int i=0;i<n;i++)
+			R.add(Q[i].mul(k[i]));
+		return R;
+	}
+
+	@Benchmark
+	public ECP2 multiMul2()
+	{
+		return ECP2.multiMul(Q,k);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* JMH benchmarks for products of pairings - chained ate calls against one shared Miller loop */
+
+package org.apache.milagro.amcl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(2)
+@State(Scope.Thread)
+public class PAIRBenchmark
+{
+/* number of pairings in the product */
+	@Param({"1","2","3","5","10"})
+	public int n;
+
+	ECP2[] P;
+	ECP[] Q;
+	PreparedG2 prepared;
+
+	@Setup
+	public void setup()
+	{
+		BenchState s=new BenchState();
+		BIG r=new BIG(ROM.CURVE_Order);
+		P=new ECP2[n];
+		Q=new ECP[n];
+		for (int i=0;i<n;i++)
+		{
+			P[i]=PAIR.G2mul(BenchState.g2(),BIG.randomnum(r,s.rng()));
+			Q[i]=PAIR.G1mul(BenchState.g1(),BIG.randomnum(r,s.rng()));
+			P[i].affine();
+			Q[i].affine();
+		}
+		prepared=new PreparedG2(P[0]);
+	}
+
+/* product of separate pairings, each with its own final exponentiation */
+	@Benchmark
+	public FP12 chainedAte()
+	{
+		FP12 r=new FP12(1);
+		for (int i=0;i<n;i++)
+			r.mul(PAIR.fexp(PAIR.ate(P[i],Q[i])));
+		return r;
+	}
+
+	@Benchmark
+	public FP12 multiAte()
+	{
+		return PAIR.fexp(PAIR.multiAte(P,Q));
+	}
+
+/* Miller loop of one pairing with the G2 argument precomputed, no final exponentiation */
+	@Benchmark
+	public FP12 preparedAte()
+	{
+		return PAIR.ate(prepared,Q[0]);
+	}
+
+	@Benchmark
+	public FP12 ate()
+	{
+		return PAIR.ate(P[0],Q[0]);
+	}
+}
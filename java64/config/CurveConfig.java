@@ -0,0 +1,166 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Writes the AMCL sources as Java packages, one for each curve, so that several curves can be used together - see CurveContext */
+/* Usage: java CurveConfig <source dir> <output dir> <package> [CURVE ...]
+
+   With no curves, the classes that do not depend on the curve (AES, GCM, HASH, RAND and CurveContext) are written to <package>.
+   Otherwise the remaining classes are written to <package>.CURVE for each curve named, with that curve selected in ROM.java */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class CurveConfig
+{
+	static final List<String> SHARED=Arrays.asList("AES","GCM","HASH","RAND","CurveContext");
+
+/* The ROM.java constants that change with the curve */
+	static final List<String> KEYS=Arrays.asList("MODBITS","MOD8","MODTYPE","Modulus","MConst","CURVETYPE","CURVE_A","CURVE_B","CURVE_Order","CURVE_Gx","CURVE_Gy");
+	static final Pattern DEF=Pattern.compile("\\s*(//)?\\s*public static final [\\w\\[\\]]+\\s+(\\w+).*");
+
+/* Each curve is found in ROM.java by the comments heading its MODBITS, Modulus and curve sections. Alternatives are separated by | */
+	static final String[][] CURVES={
+		{"ED25519","Curve 25519","Curve25519 Modulus","Ed25519 Curve"},
+		{"C25519","Curve 25519","Curve25519 Modulus","Original Curve25519"},
+		{"NIST256","NIST256 or Brainpool","NIST-256 Curve|NIST-256 Modulus","NIST-256 Curve"},
+		{"BRAINPOOL","NIST256 or Brainpool","Brainpool|Brainpool Modulus","Brainpool"},
+		{"ANSSI","ANSSI","ANSSI|ANSSI Modulus","ANSSI"},
+		{"MF254W","MF254","MF254 Modulus","MF254 Modulus, Weierstrass Curve w-254-mont"},
+		{"MF254E","MF254","MF254 Modulus","MF254 Modulus, Edwards Curve ed-254-mont"},
+		{"MF254M","MF254","MF254 Modulus","MF254 Modulus, Montgomery Curve"},
+		{"MS255W","MS255","MS255 Modulus","MS255 Modulus, Weierstrass Curve"},
+		{"MS255E","MS255","MS255 Modulus","MS255 Modulus, Edwards Curve"},
+		{"MS255M","MS255","MS255 Modulus","MS255 Modulus, Montgomery Curve"},
+		{"MF256W","MF256","MF256 Modulus","MF256 Modulus, Weierstrass Curve"},
+		{"MF256E","MF256","MF256 Modulus","MF256, Edwards Curve"},
+		{"MF256M","MF256","MF256 Modulus","MF256 Modulus, Montgomery Curve"},
+		{"MS256W","MS256","MS256 Modulus","MS256, Weierstrass Curve"},
+		{"MS256E","MS256","MS256 Modulus","MS256, Edwards Curve"},
+		{"MS256M","MS256","MS256 Modulus","MS256 Modulus, Montgomery Curve"},
+		{"BNCX","BN Curve","BNCX Curve Modulus","BNCX Curve"}
+	};
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length<3)
+		{
+			System.err.println("Usage: java CurveConfig <source dir> <output dir> <package> [CURVE ...]");
+			System.exit(1);
+		}
+		File src=new File(args[0]);
+		File out=new File(args[1]);
+		String pkg=args[2];
+
+		if (args.length==3)
+		{
+			for (String c : SHARED)
+				write(new File(src,c+".java"),new File(out,pkg.replace('.','/')),"package "+pkg+";\n\n",null);
+			return;
+		}
+		for (int i=3;i<args.length;i++)
+		{
+			String[] curve=find(args[i]);
+			if (curve==null)
+			{
+				System.err.println("Unknown curve "+args[i]);
+				System.exit(1);
+			}
+			File dir=new File(out,(pkg+"."+curve[0]).replace('.','/'));
+			String head="package "+pkg+"."+curve[0]+";\n\nimport "+pkg+".*;\n\n";
+			File[] files=src.listFiles();
+			Arrays.sort(files);
+			for (File f : files)
+			{
+				String n=f.getName();
+				if (!n.endsWith(".java") || n.startsWith("Test") || SHARED.contains(n.substring(0,n.length()-5))) continue;
+				write(f,dir,head,n.equals("ROM.java")?curve:null);
+			}
+		}
+	}
+
+	static String[] find(String name)
+	{
+		for (String[] c : CURVES)
+			if (c[0].equals(name)) return c;
+		return null;
+	}
+
+	static void write(File f,File dir,String head,String[] curve) throws IOException
+	{
+		List<String> lines=Files.readAllLines(f.toPath(),StandardCharsets.UTF_8);
+		if (curve!=null) select(lines,curve);
+		StringBuilder sb=new StringBuilder(head);
+		for (String l : lines) sb.append(l).append('\n');
+		dir.mkdirs();
+		Files.write(new File(dir,f.getName()).toPath(),sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String key(String l)
+	{
+		Matcher m=DEF.matcher(l);
+		return m.matches()?m.group(2):null;
+	}
+
+/* comment out the curve constants in ROM.java, and uncomment those of the chosen curve */
+	static void select(List<String> L,String[] curve)
+	{
+		int field=-1,start=-1;
+		for (int i=0;i<L.size();i++)
+		{
+			String l=L.get(i);
+			if (l.contains("START SPECIFY FIELD")) field=i;
+			if (l.contains("START SPECIFY CURVE")) start=i;
+			String k=key(l);
+			if (k!=null && KEYS.contains(k) && !l.trim().startsWith("//")) L.set(i,"//"+l);
+			if (k!=null && k.equals("CURVE_NAME")) L.set(i,"\tpublic static final String CURVE_NAME=\""+curve[0]+"\";");
+		}
+		if (field<0 || start<0) throw new IllegalArgumentException("ROM.java sections not found");
+		enable(L,curve[1],0,field);
+		enable(L,curve[2],field,start);
+		enable(L,curve[3],start,L.size());
+	}
+
+	static void enable(List<String> L,String header,int from,int to)
+	{
+		List<String> names=Arrays.asList(header.split("\\|"));
+		int i=from;
+		while (i<to && !(L.get(i).startsWith("//") && names.contains(L.get(i).substring(2).trim()))) i++;
+		if (i==to) throw new IllegalArgumentException("No section "+header+" in ROM.java");
+		for (i++;i<L.size() && L.get(i).trim().isEmpty();i++) ;
+		for (;i<L.size() && !L.get(i).trim().isEmpty();i++)
+		{
+			String l=L.get(i);
+			String k=key(l);
+			if (k==null)
+			{
+				if (l.startsWith("// ")) break;  /* the next section */
+				continue;
+			}
+			if (KEYS.contains(k)) L.set(i,l.replaceFirst("//",""));
+		}
+	}
+}
@@ -0,0 +1,403 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Writes Kernel.java, the limb kernels of BIG and DBIG unrolled for one choice of word size, NLEN and BASEBITS */
+/* Usage: java KernelGen <32|64> <NLEN> <BASEBITS> <output file>
+
+   The kernels are straight-line code on local variables, so that no loop or array access is left for the JIT to remove.
+   They compute exactly what the loops in BIG and DBIG compute, which are still used if ROM does not match the kernel */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class KernelGen
+{
+	final int word,n,bits;
+	final String limb,mask;
+	final StringBuilder sb=new StringBuilder();
+
+	KernelGen(int word,int n,int bits)
+	{
+		this.word=word;
+		this.n=n;
+		this.bits=bits;
+		limb=(word==64)?"long":"int";
+		mask=(word==64)?"0x"+Long.toHexString((1L<<bits)-1)+"L":"0x"+Integer.toHexString((1<<bits)-1);
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length!=4)
+		{
+			System.err.println("Usage: java KernelGen <32|64> <NLEN> <BASEBITS> <output file>");
+			System.exit(1);
+		}
+		int word=Integer.parseInt(args[0]);
+		int n=Integer.parseInt(args[1]);
+		int bits=Integer.parseInt(args[2]);
+		if ((word!=32 && word!=64) || n<2 || bits<1 || bits>=word-2)
+		{
+			System.err.println("Unsupported configuration");
+			System.exit(1);
+		}
+		KernelGen g=new KernelGen(word,n,bits);
+		g.generate();
+		Files.write(Paths.get(args[3]),g.sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	void line(String s)
+	{
+		sb.append(s).append('\n');
+	}
+
+/* comma separated declarations, e.g. x0=x[0],x1=x[1] */
+	String list(String name,String init,int len)
+	{
+		StringBuilder s=new StringBuilder();
+		for (int i=0;i<len;i++)
+		{
+			if (i>0) s.append(',');
+			s.append(name).append(i);
+			if (init!=null) s.append('=').append(init.replace("#",Integer.toString(i)));
+		}
+		return s.toString();
+	}
+
+/* the high part of a product, given its low word t - see BIG.hiword */
+	String hi(String a,String b,String t)
+	{
+		return "(Math.multiplyHigh("+a+","+b+")<<"+(64-bits)+")|("+t+">>>"+bits+")";
+	}
+
+	void generate()
+	{
+		line("/*");
+		line("Licensed to the Apache Software Foundation (ASF) under one");
+		line("or more contributor license agreements.  See the NOTICE file");
+		line("distributed with this work for additional information");
+		line("regarding copyright ownership.  The ASF licenses this file");
+		line("to you under the Apache License, Version 2.0 (the");
+		line("\"License\"); you may not use this file except in compliance");
+		line("with the License.  You may obtain a copy of the License at");
+		line("");
+		line("  http://www.apache.org/licenses/LICENSE-2.0");
+		line("");
+		line("Unless required by applicable law or agreed to in writing,");
+		line("software distributed under the License is distributed on an");
+		line("\"AS IS\" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY");
+		line("KIND, either express or implied.  See the License for the");
+		line("specific language governing permissions and limitations");
+		line("under the License.");
+		line("*/");
+		line("");
+		line("/* Limb kernels for "+word+"-bit words, NLEN="+n+" and BASEBITS="+bits+", unrolled. Generated by config/KernelGen.java - do not edit */");
+		line("");
+		line("final class Kernel");
+		line("{");
+		line("\tstatic final int NLEN="+n+";");
+		line("\tstatic final int BASEBITS="+bits+";");
+		line("\tstatic final "+limb+" MASK="+mask+";");
+		line("");
+		line("\tprivate Kernel() {}");
+		if (word==64)
+		{
+			mul64();
+			sqr64();
+		}
+		else
+		{
+			mul32();
+			sqr32();
+		}
+		norm("norm",n,true);
+		norm("dnorm",2*n,false);
+		if (word==64)
+		{
+			monty64();
+			mfred64();
+		}
+		else
+		{
+			monty32();
+			mfred32();
+		}
+		pmred();
+		line("}");
+	}
+
+	void mul64()
+	{
+		line("");
+		line("/* z=x*y, summing each column of limb products and then propagating its carry - as BIG.mul */");
+		line("\tstatic void mul(long[] x,long[] y,long[] z)");
+		line("\t{");
+		line("\t\tlong "+list("x","x[#]",n)+";");
+		line("\t\tlong "+list("y","y[#]",n)+";");
+		line("\t\tlong t,"+list("c",null,2*n)+";");
+		boolean[] set=new boolean[2*n];
+		for (int k=0;k<2*n-1;k++)
+		{
+			for (int i=Math.max(0,k-n+1);i<=Math.min(k,n-1);i++)
+			{
+				int j=k-i;
+				String x="x"+i,y="y"+j;
+				line("\t\tt="+x+"*"+y+"; "+acc(set,k,"t&MASK")+" "+acc(set,k+1,hi(x,y,"t")));
+			}
+			line("\t\tz["+k+"]=c"+k+"&MASK; c"+(k+1)+"+=c"+k+">>"+bits+";");
+		}
+		line("\t\tz["+(2*n-1)+"]=c"+(2*n-1)+";");
+		line("\t}");
+	}
+
+	String acc(boolean[] set,int k,String v)
+	{
+		String s="c"+k+(set[k]?"+=":"=")+v+";";
+		set[k]=true;
+		return s;
+	}
+
+	void sqr64()
+	{
+		line("");
+		line("/* z=x^2, each cross product computed once from a doubled limb - as BIG.sqr */");
+		line("\tstatic void sqr(long[] x,long[] z)");
+		line("\t{");
+		line("\t\tlong "+list("x","x[#]",n)+";");
+		line("\t\tlong "+list("u","2*x#",n-1)+";");
+		line("\t\tlong t,"+list("c",null,2*n)+";");
+		boolean[] set=new boolean[2*n];
+		for (int k=0;k<2*n-1;k++)
+		{
+			for (int i=Math.max(0,k-n+1);2*i<=k;i++)
+			{
+				int j=k-i;
+				String x=(i==j)?"x"+i:"u"+i,y="x"+j;
+				line("\t\tt="+x+"*"+y+"; "+acc(set,k,"t&MASK")+" "+acc(set,k+1,hi(x,y,"t")));
+			}
+			line("\t\tz["+k+"]=c"+k+"&MASK; c"+(k+1)+"+=c"+k+">>"+bits+";");
+		}
+		line("\t\tz["+(2*n-1)+"]=c"+(2*n-1)+";");
+		line("\t}");
+	}
+
+/* the column sum of x[i]*y[k-i], i descending. For a square, only the terms with i>k-i */
+	String column(String x,String y,int k,boolean sq)
+	{
+		StringBuilder s=new StringBuilder();
+		int lo=Math.max(0,k-n+1),hi=Math.min(k,n-1);
+		for (int i=lo;i<=hi;i++)
+		{
+			int a=hi-(i-lo),j=k-a;
+			if (sq && a<=j) break;
+			if (s.length()>0) s.append('+');
+			s.append("(long)").append(x).append(a).append('*').append(y).append(j);
+		}
+		return s.toString();
+	}
+
+	void mul32()
+	{
+		line("");
+		line("/* z=x*y by columns, with the carry taken from one column to the next */");
+		line("\tstatic void mul(int[] x,int[] y,int[] z)");
+		line("\t{");
+		line("\t\tint "+list("x","x[#]",n)+";");
+		line("\t\tint "+list("y","y[#]",n)+";");
+		line("\t\tlong t,co;");
+		for (int k=0;k<2*n-1;k++)
+			line("\t\tt="+column("x","y",k,false)+(k>0?"+co":"")+"; z["+k+"]=(int)t&MASK; co=t>>"+bits+";");
+		line("\t\tz["+(2*n-1)+"]=(int)co;");
+		line("\t}");
+	}
+
+	void sqr32()
+	{
+		line("");
+		line("/* z=x^2 by columns, the cross products of each column summed once and doubled */");
+		line("\tstatic void sqr(int[] x,int[] z)");
+		line("\t{");
+		line("\t\tint "+list("x","x[#]",n)+";");
+		line("\t\tlong t,co;");
+		for (int k=0;k<2*n-1;k++)
+		{
+			String s="\t\t";
+			String cross=column("x","x",k,true);
+			String diag="(long)x"+(k/2)+"*x"+(k/2);
+			if (cross.length()==0) s+="t="+diag+(k>0?"+co; ":"; ");
+			else
+			{
+				s+="t="+cross+"; t+=t; ";
+				if (k%2==0) s+="t+="+diag+"; ";
+				s+="t+=co; ";
+			}
+			line(s+"z["+k+"]=(int)t&MASK; co=t>>"+bits+";");
+		}
+		line("\t\tz["+(2*n-1)+"]=(int)co;");
+		line("\t}");
+	}
+
+/* carry propagation over len limbs. The top limb is not masked */
+	void norm(String name,int len,boolean top)
+	{
+		line("");
+		if (top) line("/* normalise w - as BIG.norm */");
+		else line("/* normalise w - as DBIG.norm */");
+		line("\tstatic "+(top?limb:"void")+" "+name+"("+limb+"[] w)");
+		line("\t{");
+		line("\t\t"+limb+" t=w[0];");
+		for (int i=0;i<len-1;i++)
+			line("\t\tw["+i+"]=t&MASK; t=w["+(i+1)+"]+(t>>"+bits+");");
+		line("\t\tw["+(len-1)+"]=t;");
+		if (top) line("\t\treturn t>>((8*ROM.MODBYTES)%ROM.BASEBITS);");
+		line("\t}");
+	}
+
+/* b=the limbs z[n..2n-1], normalised */
+	void out(String z)
+	{
+		line("\t\tt="+z+n+";");
+		for (int i=0;i<n-1;i++)
+			line("\t\tb["+i+"]="+(word==32?"(int)":"")+"t&MASK; t="+z+(n+i+1)+"+(t>>"+bits+");");
+		line("\t\tb["+(n-1)+"]="+(word==32?"(int)":"")+"t;");
+	}
+
+	void monty64()
+	{
+		line("");
+		line("/* b=d reduced by Montgomery's method, for moduli of type NOT_SPECIAL - as BIG.mod(DBIG,BIG). d is unchanged */");
+		line("\tstatic void monty(long[] d,long[] b)");
+		line("\t{");
+		line("\t\tlong "+list("z","d[#]",2*n)+";");
+		line("\t\tlong "+list("p","ROM.Modulus[#]",n)+";");
+		line("\t\tlong t,m,carry;");
+		for (int i=0;i<n;i++)
+		{
+			String zi=(i>0)?"(z"+i+"+carry)":"z"+i;
+			line("\t\tm=(ROM.MConst*"+zi+")&MASK;");
+			for (int j=0;j<n;j++)
+				line("\t\tt=m*p"+j+"; z"+(i+j)+"+=t&MASK; z"+(i+j+1)+"+="+hi("m","p"+j,"t")+";");
+			line("\t\tcarry="+zi+">>"+bits+";");
+		}
+		for (int i=n;i<2*n-1;i++)
+			line("\t\tt=z"+i+"+carry; b["+(i-n)+"]=t&MASK; carry=t>>"+bits+";");
+		line("\t\tb["+(n-1)+"]=z"+(2*n-1)+"+carry;");
+		line("\t}");
+	}
+
+	void mfred64()
+	{
+		line("");
+		line("/* b=d reduced for moduli of type MONTGOMERY_FRIENDLY - as BIG.mod(DBIG,BIG). d is unchanged */");
+		line("\tstatic void mfred(long[] d,long[] b)");
+		line("\t{");
+		line("\t\tlong "+list("z","d[#]",2*n)+";");
+		line("\t\tlong c=ROM.MConst-1;");
+		line("\t\tlong t,bot;");
+		for (int i=0;i<n;i++)
+		{
+			String z="z"+i,lo="z"+(n+i-1);
+			line("\t\tt="+z+"*c; bot=(t&MASK)+"+z+"+"+lo+"; "+lo+"=bot&MASK; z"+(n+i)+"+=("+hi(z,"c","t")+")+(bot>>"+bits+");");
+		}
+		out("z");
+		line("\t}");
+	}
+
+	void monty32()
+	{
+		line("");
+		line("/* b=d reduced by Montgomery's method, for moduli of type NOT_SPECIAL - as BIG.mod(DBIG). d is unchanged */");
+		line("\tstatic void monty(int[] d,int[] b)");
+		line("\t{");
+		line("\t\tint "+list("z","d[#]",2*n)+";");
+		line("\t\tint "+list("p","ROM.Modulus[#]",n)+";");
+		line("\t\tlong t,sum=z0;");
+		for (int j=0;j<n;j++)
+		{
+			String s="\t\t";
+			for (int i=0;i<j;i++) s+="sum+=(long)z"+i+"*p"+(j-i)+"; ";
+			line(s+"z"+j+"=((int)sum*ROM.MConst)&MASK; sum+=(long)z"+j+"*p0; sum=z"+(j+1)+"+(sum>>"+bits+");");
+		}
+		for (int j=n;j<2*n-2;j++)
+		{
+			String s="\t\t";
+			for (int i=j-n+1;i<n;i++) s+="sum+=(long)z"+i+"*p"+(j-i)+"; ";
+			line(s+"z"+j+"=(int)sum&MASK; sum=z"+(j+1)+"+(sum>>"+bits+");");
+		}
+		line("\t\tsum+=(long)z"+(n-1)+"*p"+(n-1)+"; z"+(2*n-2)+"=(int)sum&MASK; sum=z"+(2*n-1)+"+(sum>>"+bits+"); z"+(2*n-1)+"=(int)sum&MASK;");
+		out("z");
+		line("\t}");
+	}
+
+	void mfred32()
+	{
+		line("");
+		line("/* b=d reduced for moduli of type MONTGOMERY_FRIENDLY - as BIG.mod(DBIG). d is unchanged */");
+		line("\tstatic void mfred(int[] d,int[] b)");
+		line("\t{");
+		line("\t\tint "+list("z","d[#]",2*n)+";");
+		line("\t\tint c=ROM.MConst-1;");
+		line("\t\tlong t;");
+		for (int i=0;i<n;i++)
+		{
+			String z="z"+i,lo="z"+(n+i-1);
+			line("\t\tt=(long)"+z+"*c+"+z+"+"+lo+"; "+lo+"=(int)t&MASK; z"+(n+i)+"+=(int)(t>>"+bits+");");
+		}
+		out("z");
+		line("\t}");
+	}
+
+/* Split off t=d>>MODBITS, multiply it by the small constant MConst, and fold it into the low MODBITS bits. The top bits of the product
+   are folded once more into the bottom limb. Shifts by TBITS are constants of ROM, so javac folds them */
+	void pmred()
+	{
+		String cast=(word==32)?"(int)":"";
+		line("");
+		line("/* b=d reduced for moduli of type PSEUDO_MERSENNE - as BIG.mod(DBIG"+(word==64?",BIG":"")+"). d is unchanged */");
+		line("\tstatic void pmred("+limb+"[] d,"+limb+"[] b)");
+		line("\t{");
+		line("\t\t"+limb+" "+list("z","d[#]",2*n)+";");
+		line("\t\t"+limb+" c=ROM.MConst;");
+		line("\t\t"+limb+" "+list("t",null,n)+",v,tw;");
+		line("\t\tlong p"+(word==64?",h,bot":"")+";");
+		for (int k=0;k<n-1;k++)
+			line("\t\tt"+k+"=(z"+(n-1+k)+">>ROM.TBITS)|((z"+(n+k)+"<<("+bits+"-ROM.TBITS))&MASK);");
+		line("\t\tt"+(n-1)+"=(z"+(2*n-2)+">>ROM.TBITS)|(z"+(2*n-1)+"<<("+bits+"-ROM.TBITS));");
+		for (int k=0;k<n;k++)
+		{
+			String t="t"+k;
+			if (word==64)
+			{
+				if (k==0) line("\t\tp="+t+"*c; v="+hi(t,"c","p")+"; "+t+"=p&MASK;");
+				else line("\t\tp="+t+"*c; h="+hi(t,"c","p")+"; bot=(p&MASK)+v; "+t+"=bot&MASK; v=h+(bot>>"+bits+");");
+			}
+			else line("\t\tp=(long)"+t+"*c"+(k>0?"+v":"")+"; "+t+"=(int)p&MASK; v=(int)(p>>"+bits+");");
+		}
+		line("\t\ttw=t"+(n-1)+"; t"+(n-1)+"&=ROM.TMASK; t0+=c*((tw>>ROM.TBITS)+(v<<("+bits+"-ROM.TBITS)));");
+		line("\t\tz"+(n-1)+"&=ROM.TMASK;");
+		String t="\t\t"+limb+" s=z0+t0;";
+		line(t);
+		for (int i=0;i<n-1;i++)
+			line("\t\tb["+i+"]=s&MASK; s=z"+(i+1)+"+t"+(i+1)+"+(s>>"+bits+");");
+		line("\t\tb["+(n-1)+"]=s;");
+		line("\t}");
+	}
+}
@@ -0,0 +1,128 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks BIG arithmetic against java.math.BigInteger */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BIGTest
+{
+/* the value of limbs w, which need not be normed */
+	static BigInteger big(long[] w)
+	{
+		BigInteger x=BigInteger.ZERO;
+		for (int i=w.length-1;i>=0;i--)
+			x=x.shiftLeft(ROM.BASEBITS).add(BigInteger.valueOf(w[i]));
+		return x;
+	}
+
+	static BigInteger big(BIG x)
+	{
+		long[] w=new long[ROM.NLEN];
+		for (int i=0;i<ROM.NLEN;i++)
+			w[i]=x.get(i);
+		return big(w);
+	}
+
+	static BIG big(BigInteger x)
+	{
+		long[] w=new long[ROM.NLEN];
+		for (int i=0;i<ROM.NLEN;i++)
+			w[i]=x.shiftRight(i*ROM.BASEBITS).longValue()&ROM.MASK;
+		return new BIG(w);
+	}
+
+/* the constant time inverse, for the field and group orders and an odd modulus of a few limbs, with x=1, p-1, and x above p */
+	@Test
+	public void testCtinvmodp()
+	{
+		Random r=new Random(4);
+		BigInteger[] moduli={big(new BIG(ROM.Modulus)),big(new BIG(ROM.CURVE_Order)),
+			new BigInteger(2*ROM.BASEBITS+5,r).setBit(2*ROM.BASEBITS+4).setBit(0)};
+		for (BigInteger P : moduli)
+		{
+			BigInteger[] xs=new BigInteger[40];
+			xs[0]=BigInteger.ONE;
+			xs[1]=P.subtract(BigInteger.ONE);
+			xs[2]=BigInteger.valueOf(2);
+			xs[3]=P.add(BigInteger.valueOf(2));
+			xs[4]=P.shiftLeft(ROM.NLEN*ROM.BASEBITS-P.bitLength()-1).add(BigInteger.ONE);
+			for (int i=5;i<xs.length;i++)
+				xs[i]=new BigInteger(P.bitLength(),r).mod(P);
+			for (BigInteger X : xs)
+			{
+				if (!X.gcd(P).equals(BigInteger.ONE)) continue;
+				BIG x=big(X);
+				x.ctinvmodp(big(P));
+				x.norm();
+				assertEquals(X.toString(16),X.modInverse(P),big(x));
+			}
+		}
+	}
+
+/* normed limbs - random, all zero, all one bits, and a single bit */
+	static long[][] limbs(Random r)
+	{
+		long[][] w=new long[40][ROM.NLEN];
+		for (int i=0;i<ROM.NLEN;i++)
+		{
+			w[1][i]=ROM.MASK;
+			w[2][i]=(i==ROM.NLEN-1)?1:0;
+		}
+		for (int k=3;k<w.length;k++)
+			for (int i=0;i<ROM.NLEN;i++)
+				w[k][i]=r.nextLong()&ROM.MASK;
+		return w;
+	}
+
+/* the generated Kernel.mul and Kernel.sqr give the limbs of the loops in BIG, and the right product */
+	@Test
+	public void testKernel()
+	{
+		assertTrue(BIG.UNROLLED);
+		long[][] w=limbs(new Random(5));
+		for (long[] x : w)
+		{
+			for (long[] y : w)
+			{
+				long[] z=new long[ROM.DNLEN];
+				DBIG c=new DBIG(0);
+				Kernel.mul(x,y,z);
+				BIG.loopmul(new BIG(x),new BIG(y),c);
+				assertArrayEquals(c.w,z);
+				assertEquals(big(x).multiply(big(y)),big(z));
+			}
+			long[] z=new long[ROM.DNLEN];
+			DBIG c=new DBIG(0);
+			Kernel.sqr(x,z);
+			BIG.loopsqr(new BIG(x),c);
+			assertArrayEquals(c.w,z);
+			assertEquals(big(x).pow(2),big(z));
+		}
+	}
+}
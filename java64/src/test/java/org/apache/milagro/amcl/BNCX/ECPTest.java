@@ -0,0 +1,89 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks multiMul in G1 and G2 against a loop of mul and add, either side of the switch to Pippenger */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertTrue;
+
+import org.apache.milagro.amcl.RAND;
+import org.junit.Test;
+
+public class ECPTest
+{
+	static final int[] SIZES={1,ECP.PIPPENGER-1,ECP.PIPPENGER,200};
+
+/* random scalars, with every fifth one zero */
+	static BIG[] scalars(RAND rng,int n)
+	{
+		BIG r=new BIG(ROM.CURVE_Order);
+		BIG[] k=new BIG[n];
+		for (int i=0;i<n;i++)
+			k[i]=(i%5==3)?new BIG(0):BIG.randomnum(r,rng);
+		return k;
+	}
+
+	@Test
+	public void testMultiMul()
+	{
+		RAND rng=FFTest.rng();
+		BIG r=new BIG(ROM.CURVE_Order);
+		for (int n : SIZES)
+		{
+			ECP[] P=new ECP[n];
+			BIG[] k=scalars(rng,n);
+			ECP S=new ECP();
+			for (int i=0;i<n;i++)
+			{
+				P[i]=(i%7==2)?new ECP():PAIR.G1mul(PAIRTest.g1(),BIG.randomnum(r,rng));
+				S.add(P[i].mul(k[i]));
+			}
+			assertTrue("n="+n,ECP.multiMul(P,k).equals(S));
+		}
+	}
+
+	@Test
+	public void testMultiMul2()
+	{
+		RAND rng=FFTest.rng();
+		BIG r=new BIG(ROM.CURVE_Order);
+		for (int n : SIZES)
+		{
+			ECP2[] P=new ECP2[n];
+			BIG[] k=scalars(rng,n);
+			ECP2 S=new ECP2();
+			for (int i=0;i<n;i++)
+			{
+				P[i]=(i%7==2)?new ECP2():PAIR.G2mul(PAIRTest.g2(),BIG.randomnum(r,rng));
+				S.add(P[i].mul(k[i]));
+			}
+			assertTrue("n="+n,ECP2.multiMul(P,k).equals(S));
+		}
+	}
+
+/* nothing left after the infinities and zeros are dropped */
+	@Test
+	public void testMultiMulEmpty()
+	{
+		BIG[] k={new BIG(0),new BIG(5)};
+		assertTrue(ECP.multiMul(new ECP[] {PAIRTest.g1(),new ECP()},k).is_infinity());
+		assertTrue(ECP2.multiMul(new ECP2[] {PAIRTest.g2(),new ECP2()},k).is_infinity());
+	}
+}
@@ -0,0 +1,168 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks the large finite field arithmetic used by RSA against java.math.BigInteger */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.apache.milagro.amcl.RAND;
+import org.junit.Test;
+
+public class FFTest
+{
+	static final int N=ROM.HFLEN;
+	static final int RBITS=256*N;   /* R=2^RBITS, as used by Montgomery reduction */
+
+	static FF ff(BigInteger x,int n)
+	{
+		byte[] b=new byte[n*ROM.MODBYTES];
+		byte[] t=x.toByteArray();
+		int k=Math.min(t.length,b.length);
+		System.arraycopy(t,t.length-k,b,b.length-k,k);
+		FF f=new FF(n);
+		FF.fromBytes(f,b);
+		return f;
+	}
+
+	static BigInteger big(FF x)
+	{
+		byte[] b=new byte[x.getlen()*ROM.MODBYTES];
+		x.toBytes(b);
+		return new BigInteger(1,b);
+	}
+
+/* odd moduli of many sizes, from full length down to a few bits */
+	static BigInteger[] moduli(Random r)
+	{
+		int[] bits={RBITS,RBITS,RBITS-1,RBITS-100,RBITS/2+3,300,64,10};
+		BigInteger[] m=new BigInteger[bits.length];
+		for (int i=0;i<bits.length;i++)
+			m[i]=new BigInteger(bits[i],r).setBit(bits[i]-1).setBit(0);
+		return m;
+	}
+
+	@Test
+	public void testDmod()
+	{
+		Random r=new Random(1);
+		BigInteger R2=BigInteger.ONE.shiftLeft(2*RBITS);
+		for (BigInteger B : moduli(r))
+		{
+			FF b=ff(B,N);
+			FF nd=b.invmod2m();
+			FF r2=b.montR2();
+			assertEquals(BigInteger.ONE.shiftLeft(2*RBITS).mod(B),big(r2));
+			BigInteger[] X={BigInteger.ZERO,B,B.shiftLeft(RBITS),B.shiftLeft(RBITS).subtract(BigInteger.ONE),
+				R2.subtract(BigInteger.ONE),new BigInteger(2*RBITS,r),new BigInteger(2*RBITS,r),new BigInteger(RBITS+5,r)};
+			for (BigInteger X1 : X)
+			{
+				FF x=ff(X1,2*N);
+				BigInteger want=X1.mod(B);
+				assertEquals(want,big(x.dmod(b)));
+				assertEquals(want,big(x.dmod(b,nd,r2)));
+				assertEquals(X1,big(x));   /* not changed */
+			}
+		}
+/* the division needs no odd modulus */
+		BigInteger E=new BigInteger(RBITS-7,r).setBit(RBITS-8).clearBit(0);
+		BigInteger X1=R2.subtract(BigInteger.ONE);
+		assertEquals(X1.mod(E),big(ff(X1,2*N).dmod(ff(E,N))));
+	}
+
+/* the fixed-window skpow, for exponents of the length of the modulus and of one BIG */
+	@Test
+	public void testSkpow()
+	{
+		Random r=new Random(2);
+		for (BigInteger P : moduli(r))
+		{
+			FF p=ff(P,N);
+			FF nd=p.invmod2m();
+			FF r2=p.montR2();
+			BigInteger[] X={BigInteger.ZERO,BigInteger.ONE,P.subtract(BigInteger.ONE),new BigInteger(RBITS,r).mod(P)};
+			BigInteger[] E={BigInteger.ZERO,BigInteger.ONE,BigInteger.valueOf(31),P.subtract(BigInteger.ONE),
+				new BigInteger(RBITS,r),BigInteger.ONE.shiftLeft(RBITS).subtract(BigInteger.ONE)};
+			for (BigInteger X1 : X)
+				for (BigInteger E1 : E)
+				{
+					BigInteger want=X1.modPow(E1,P);
+					FF x=ff(X1,N);
+					x.skpow(ff(E1,N),p);
+					assertEquals(want,big(x));
+					x=ff(X1,N);
+					x.skpow(ff(E1,N),p,nd,r2);
+					assertEquals(want,big(x));
+
+					BigInteger e1=E1.mod(BigInteger.ONE.shiftLeft(8*ROM.MODBYTES));
+					byte[] eb=new byte[ROM.MODBYTES];
+					ff(e1,1).toBytes(eb);
+					x=ff(X1,N);
+					x.skpow(BIG.fromBytes(eb),p);
+					assertEquals(X1.modPow(e1,P),big(x));
+				}
+		}
+	}
+
+	static RAND rng()
+	{
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+7);
+		RAND rng=new RAND();
+		rng.clean();
+		rng.seed(100,raw);
+		return rng;
+	}
+
+/* Miller-Rabin, serial and with parallel rounds, on primes and on composites that fool weaker tests */
+	@Test
+	public void testMillerRabin()
+	{
+		Random r=new Random(3);
+		RAND rng=rng();
+		BigInteger P1=BigInteger.probablePrime(RBITS,r);
+		BigInteger P2=BigInteger.probablePrime(RBITS/2,r);
+		BigInteger P3=BigInteger.probablePrime(RBITS/2,r);
+		BigInteger[] primes={BigInteger.valueOf(8191),BigInteger.valueOf(2147483647),P1,P2,
+			BigInteger.ONE.shiftLeft(521).subtract(BigInteger.ONE)};
+		BigInteger[] composites={
+			BigInteger.valueOf(561),BigInteger.valueOf(41041),BigInteger.valueOf(825265),  /* Carmichael */
+			BigInteger.valueOf(2047),BigInteger.valueOf(3215031751L),                      /* strong pseudoprimes to base 2 */
+			P2.multiply(P3),P2.multiply(P2),P1.add(BigInteger.valueOf(2))};
+		for (BigInteger P : primes)
+		{
+			assertTrue(P.toString(),FF.millerRabin(ff(P,N),rng,false));
+			assertTrue(P.toString(),FF.millerRabin(ff(P,N),rng,true));
+		}
+		for (BigInteger C : composites)
+		{
+			if (C.isProbablePrime(50)) continue;
+			assertFalse(C.toString(),FF.millerRabin(ff(C,N),rng,false));
+			assertFalse(C.toString(),FF.millerRabin(ff(C,N),rng,true));
+			assertFalse(C.toString(),FF.prime(ff(C,N),rng));
+		}
+		assertTrue(FF.prime(ff(P1,N),rng));
+	}
+}
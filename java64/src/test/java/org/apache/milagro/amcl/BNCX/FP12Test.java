@@ -0,0 +1,66 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks the signed-digit power used by the final exponentiation against the binary one */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertTrue;
+
+import org.apache.milagro.amcl.RAND;
+import org.junit.Test;
+
+public class FP12Test
+{
+/* the NAF of e, least significant digit first */
+	static byte[] naf(BIG e)
+	{
+		byte[] t=new byte[ROM.NLEN*ROM.BASEBITS+1];
+		byte[] n=new byte[ECP.wnaf(e,2,t)];
+		System.arraycopy(t,0,n,0,n.length);
+		return n;
+	}
+
+	@Test
+	public void testPowNAF()
+	{
+		RAND rng=FFTest.rng();
+		BIG r=new BIG(ROM.CURVE_Order);
+/* pow(byte[]) is only valid in the cyclotomic subgroup, i.e. after the final exponentiation */
+		FP12 u=PAIR.fexp(PAIR.ate(PAIRTest.g2(),PAIRTest.g1()));
+		BIG[] E=new BIG[10];
+		E[0]=new BIG(ROM.CURVE_Bnx);
+		E[1]=new BIG(1);
+		for (int i=2;i<E.length;i++) E[i]=BIG.randomnum(r,rng);
+		for (BIG e : E)
+		{
+			FP12 w=u.pow(naf(e));
+			assertTrue(e.toString(),w.equals(u.pow(new BIG(e))));
+		}
+	}
+
+/* digits given by hand - -1+4, and no digits at all */
+	@Test
+	public void testPowDigits()
+	{
+		FP12 u=PAIR.fexp(PAIR.ate(PAIRTest.g2(),PAIRTest.g1()));
+		assertTrue(u.pow(new byte[] {-1,0,1}).equals(u.pow(new BIG(3))));
+		assertTrue(u.pow(new byte[0]).isunity());
+	}
+}
@@ -0,0 +1,188 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks the lazily reduced FP2 and FP4 products against java.math.BigInteger, with operands either side of FP.LAZY */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class FP4Test
+{
+	static final BigInteger P=BIGTest.big(new BIG(ROM.Modulus));
+	static final int K=240;   /* operands have up to 3K summands - enough to take their products well past LAZY */
+
+/* an FP of value v, the normed sum of k+1 reduced elements, so its excess grows with k */
+	static FP lazy(BigInteger v,int k,Random r)
+	{
+		FP x=new FP(0);
+		for (int i=0;i<k;i++)
+		{
+			BigInteger u=new BigInteger(P.bitLength()+8,r).mod(P);
+			x.add(new FP(BIGTest.big(u)));
+			x.norm();   /* limbs may only take NEXCESS additions between norms */
+			v=v.subtract(u);
+		}
+		x.add(new FP(BIGTest.big(v.mod(P))));
+		return x;
+	}
+
+	static BigInteger[] random(int n,Random r)
+	{
+		BigInteger[] v=new BigInteger[n];
+		for (int i=0;i<n;i++)
+			v[i]=new BigInteger(P.bitLength()+8,r).mod(P);
+		return v;
+	}
+
+	static FP2 fp2(BigInteger[] v,int i,int k,Random r)
+	{
+		return new FP2(lazy(v[i],k,r),lazy(v[i+1],k,r));
+	}
+
+/* (ea+eb+2), for the excesses of the normed parts of an FP2 with real part a and imaginary part b */
+	static long bound(FP a,FP b)
+	{
+		a.norm();
+		b.norm();
+		return a.excess()+b.excess()+2;
+	}
+
+	static BigInteger value(BIG x)
+	{
+		return BIGTest.big(x).mod(P);
+	}
+
+/* each FP of a product, as held, must be in [0,2p) like the output of FP.mul - an unreduced sum that went negative is not */
+	static void checkRaw(String raw)
+	{
+		Matcher m=Pattern.compile("\\(([^)]*)\\)").matcher(raw);
+		int n=0;
+		while (m.find())
+		{
+			String[] h=m.group(1).split(",");
+			long[] w=new long[h.length];
+			for (int i=0;i<h.length;i++)
+				w[i]=Long.parseUnsignedLong(h[i],16);
+			BigInteger v=BIGTest.big(w);
+			assertTrue(raw,v.signum()>=0 && v.compareTo(P.shiftLeft(1))<0);
+			n++;
+		}
+		assertTrue(n>0);
+	}
+
+/* (a+ib)(c+id) with i^2=-1 */
+	static BigInteger[] mul2(BigInteger a,BigInteger b,BigInteger c,BigInteger d)
+	{
+		return new BigInteger[] {a.multiply(c).subtract(b.multiply(d)).mod(P),a.multiply(d).add(b.multiply(c)).mod(P)};
+	}
+
+/* (A+jB)(C+jD) with j^2=1+i */
+	static BigInteger[] mul4(BigInteger[] x,BigInteger[] y)
+	{
+		BigInteger[] ac=mul2(x[0],x[1],y[0],y[1]);
+		BigInteger[] bd=mul2(x[2],x[3],y[2],y[3]);
+		BigInteger[] ad=mul2(x[0],x[1],y[2],y[3]);
+		BigInteger[] bc=mul2(x[2],x[3],y[0],y[1]);
+		return new BigInteger[] {ac[0].add(bd[0]).subtract(bd[1]).mod(P),ac[1].add(bd[0]).add(bd[1]).mod(P),
+			ad[0].add(bc[0]).mod(P),ad[1].add(bc[1]).mod(P)};
+	}
+
+	static void check(BigInteger[] v,FP2 z)
+	{
+		checkRaw(z.toRawString());
+		assertEquals(v[0],value(z.getA()));
+		assertEquals(v[1],value(z.getB()));
+	}
+
+	static void check(BigInteger[] v,FP4 z)
+	{
+		checkRaw(z.toRawString());
+		assertEquals(v[0],value(z.geta().getA()));
+		assertEquals(v[1],value(z.geta().getB()));
+		assertEquals(v[2],value(z.getb().getA()));
+		assertEquals(v[3],value(z.getb().getB()));
+	}
+
+	@Test
+	public void testFP2()
+	{
+		Random r=new Random(6);
+		long below=0,above=0;
+		for (int k=0;k<=3*K;k++)
+		{
+			BigInteger[] v=random(4,r);
+			FP xa=lazy(v[0],k,r),xb=lazy(v[1],k,r);
+			FP ya=lazy(v[2],3*K-k/2,r),yb=lazy(v[3],3*K-k/2,r);
+			long e=bound(xa,xb)*bound(ya,yb);
+			FP2 x=new FP2(xa,xb);
+			FP2 y=new FP2(ya,yb);
+			if (e<FP.LAZY) below=Math.max(below,e);
+			else above++;
+
+			FP2 z=new FP2(x);
+			z.mul(y);
+			check(mul2(v[0],v[1],v[2],v[3]),z);
+
+			z.copy(x);
+			z.mul(z);
+			check(mul2(v[0],v[1],v[0],v[1]),z);
+
+			z.copy(x);
+			z.sqr();
+			check(mul2(v[0],v[1],v[0],v[1]),z);
+		}
+		assertTrue(below>=FP.LAZY*7/8);   /* just under the bound, where nothing is reduced */
+		assertTrue(above>0);
+	}
+
+	@Test
+	public void testFP4()
+	{
+		Random r=new Random(7);
+		for (int k=0;k<=3*K/2;k+=3)
+		{
+			BigInteger[] v=random(8,r);
+			BigInteger[] xv={v[0],v[1],v[2],v[3]};
+			BigInteger[] yv={v[4],v[5],v[6],v[7]};
+			FP4 x=new FP4(fp2(v,0,k,r),fp2(v,2,k,r));
+			FP4 y=new FP4(fp2(v,4,3*K/2-k,r),fp2(v,6,k,r));
+
+			FP4 z=new FP4(x);
+			z.mul(y);
+			check(mul4(xv,yv),z);
+
+			z.copy(x);
+			z.sqr();
+			check(mul4(xv,xv),z);
+
+			z.copy(y);
+			z.sqr();
+			check(mul4(yv,yv),z);
+		}
+	}
+}
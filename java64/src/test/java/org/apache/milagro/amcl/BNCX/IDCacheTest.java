@@ -0,0 +1,105 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks that MPIN gives the same outputs with the identity cache as without it, and the limits of the cache */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class IDCacheTest
+{
+	static final int G1S=2*MPIN.EFS+1;
+
+	static byte[] id(int i)
+	{
+		return ("user"+i+"@example.com").getBytes(StandardCharsets.UTF_8);
+	}
+
+/* HID and HTID with a date, HID without, a time permit, a client secret and a permit for date 0, for identity i */
+	static byte[][] outputs(int i,int date)
+	{
+		byte[] S=new byte[MPIN.EGS];
+		S[MPIN.EGS-1]=7;
+		byte[] h=MPIN.hashit(0,id(i));
+		byte[][] o=new byte[6][G1S];
+		MPIN.SERVER_1(date,id(i),o[0],o[1]);
+		MPIN.SERVER_1(0,id(i),o[2],null);
+		MPIN.GET_CLIENT_PERMIT(date,S,h,o[3]);
+		MPIN.GET_CLIENT_SECRET(S,h,o[4]);
+		MPIN.GET_CLIENT_PERMIT(0,S,h,o[5]);
+		return o;
+	}
+
+	@After
+	public void off()
+	{
+		MPIN.setIDCache(null);
+	}
+
+	@Test
+	public void testSameOutputs()
+	{
+		int date=MPIN.today();
+		byte[][][] plain=new byte[3][][];
+		for (int i=0;i<3;i++) plain[i]=outputs(i,date);
+
+		IDCache c=new IDCache(16,0);
+		MPIN.setIDCache(c);
+		for (int pass=0;pass<2;pass++)
+			for (int i=0;i<3;i++)
+			{
+				byte[][] o=outputs(i,date);
+				for (int j=0;j<6;j++) assertArrayEquals(plain[i][j],o[j]);
+			}
+/* each identity has two entries, for date 0 and for the date */
+		assertEquals(6,c.size());
+/* SERVER_1 with a date misses once per identity, and makes the entry for date 0 too. A permit for date 0 is */
+/* not cached, so each pass does four lookups per identity */
+		assertEquals(3,c.misses());
+		assertEquals(2*3*4-3,c.hits());
+	}
+
+	@Test
+	public void testLimits()
+	{
+		IDCache c=new IDCache(2,0);
+		for (int i=0;i<3;i++) c.point(MPIN.hashit(0,id(i)),0);
+		assertEquals(2,c.size());
+		c.point(MPIN.hashit(0,id(0)),0);
+		assertEquals(4,c.misses());
+
+		c=new IDCache(2,1);
+		byte[] h=MPIN.hashit(0,id(0));
+		c.point(h,0);
+		long t=System.currentTimeMillis();
+		while (System.currentTimeMillis()-t<5) Thread.yield();
+		c.point(h,0);
+		assertEquals(0,c.hits());
+		assertEquals(2,c.misses());
+		c.clear();
+		assertEquals(0,c.size());
+	}
+}
@@ -0,0 +1,193 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Replays the M-Pin test vectors in testVectors/mpin, checking every recorded output */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.milagro.amcl.RAND;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(Parameterized.class)
+public class MPINVectorsTest
+{
+	static final int EFS=MPIN.EFS;
+	static final int EGS=MPIN.EGS;
+	static final int G1S=2*EFS+1; /* Group 1 Size */
+	static final int GTS=12*EFS;  /* Group T Size */
+
+	@Parameters(name="{0}")
+	public static Collection<Object[]> vectors()
+	{
+		return Arrays.asList(new Object[][] {{"BNCX"},{"BNCXOnePass"}});
+	}
+
+	private final JsonNode root;
+
+	public MPINVectorsTest(String name) throws IOException
+	{
+		InputStream in=MPINVectorsTest.class.getResourceAsStream("/mpin/"+name+".json");
+		if (in==null) throw new IOException("no test vectors for "+name);
+		try
+		{
+			root=new ObjectMapper().readTree(in);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	static byte[] hex(JsonNode j,String field)
+	{
+		String s=j.get(field).asText();
+		byte[] b=new byte[s.length()/2];
+		for (int i=0;i<b.length;i++)
+			b[i]=(byte)Integer.parseInt(s.substring(2*i,2*i+2),16);
+		return b;
+	}
+
+	@Test
+	public void testHashID()
+	{
+		for (JsonNode j : root)
+			assertArrayEquals("test "+j.get("test_no"),hex(j,"HASH_MPIN_ID_HEX"),MPIN.HASH_ID(hex(j,"MPIN_ID_HEX")));
+	}
+
+	@Test
+	public void testClient()
+	{
+		for (JsonNode j : root)
+		{
+			String n="test "+j.get("test_no");
+			int date=j.get("DATE").asInt();
+			byte[] SEC=new byte[G1S];
+			byte[] xID=new byte[G1S];
+			byte[] xCID=new byte[G1S];
+			assertEquals(n,0,MPIN.CLIENT_1(date,hex(j,"MPIN_ID_HEX"),null,hex(j,"X"),j.get("PIN2").asInt(),hex(j,"TOKEN"),SEC,xID,xCID,hex(j,"TIME_PERMIT")));
+			assertArrayEquals(n,hex(j,"U"),xID);
+			assertArrayEquals(n,hex(j,"UT"),xCID);
+
+			byte[] Y;
+			if (j.has("TimeValue"))
+			{ /* one pass - Y is derived from the time and xCID */
+				Y=new byte[EGS];
+				MPIN.GET_Y(j.get("TimeValue").asInt(),date!=0?xCID:xID,Y);
+				assertArrayEquals(n,hex(j,"Y"),Y);
+			}
+			else Y=hex(j,"Y");
+
+			byte[] V=Arrays.copyOf(SEC,G1S);
+			assertEquals(n,0,MPIN.CLIENT_2(hex(j,"X"),Y,V));
+			if (j.has("V"))
+			{
+				assertArrayEquals(n,hex(j,"SEC"),SEC);
+				assertArrayEquals(n,hex(j,"V"),V);
+			}
+			else assertArrayEquals(n,hex(j,"SEC"),V); /* one pass records the final SEC */
+		}
+	}
+
+	@Test
+	public void testServer()
+	{
+		for (JsonNode j : root)
+		{
+			String n="test "+j.get("test_no");
+			int date=j.get("DATE").asInt();
+			byte[] ID=hex(j,"MPIN_ID_HEX");
+			byte[] HID=new byte[G1S];
+			byte[] HTID=new byte[G1S];
+			MPIN.SERVER_1(date,ID,HID,HTID);
+
+			byte[] V=hex(j,j.has("V")?"V":"SEC");
+			byte[] E=new byte[GTS];
+			byte[] F=new byte[GTS];
+			int rtn=MPIN.SERVER_2(date,HID,HTID,hex(j,"Y"),hex(j,"SERVER_SECRET"),hex(j,"U"),hex(j,"UT"),V,E,F);
+			assertEquals(n,j.get("SERVER_OUTPUT").asInt(),rtn);
+			byte[] PE=new byte[GTS];
+			byte[] PF=new byte[GTS];
+			PreparedG2 sQ=new PreparedG2(ECP2.fromBytes(hex(j,"SERVER_SECRET")));
+			assertEquals(n,rtn,MPIN.SERVER_2(date,HID,HTID,hex(j,"Y"),sQ,hex(j,"U"),hex(j,"UT"),V,PE,PF));
+			assertArrayEquals(n,E,PE);
+			assertArrayEquals(n,F,PF);
+
+			if (rtn==MPIN.BAD_PIN)
+			{
+				int pin1=j.get("PIN1").asInt();
+				int pin2=j.get("PIN2").asInt();
+				int d=MPIN.KANGAROO(E,F);
+				assertTrue(n,d==0 || d==pin2-pin1 || d==pin1-pin2); /* 0 - the trap can miss */
+			}
+		}
+	}
+
+/* M-Pin Full - the keys are not recorded, so check that client and server agree */
+	@Test
+	public void testKeys()
+	{
+		RAND rng=new RAND();
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+1);
+		rng.seed(100,raw);
+
+		for (JsonNode j : root)
+		{
+			if (j.get("SERVER_OUTPUT").asInt()!=0) continue;
+			String n="test "+j.get("test_no");
+			int date=j.get("DATE").asInt();
+			byte[] HCID=hex(j,"HASH_MPIN_ID_HEX");
+			byte[] HID=new byte[G1S];
+			byte[] HTID=new byte[G1S];
+			MPIN.SERVER_1(date,hex(j,"MPIN_ID_HEX"),HID,HTID);
+
+			byte[] G1=new byte[GTS];
+			byte[] G2=new byte[GTS];
+			assertEquals(n,0,MPIN.PRECOMPUTE(hex(j,"TOKEN"),HCID,G1,G2));
+			byte[] R=new byte[EGS];
+			byte[] Z=new byte[G1S];
+			MPIN.GET_G1_MULTIPLE(rng,1,R,HCID,Z);
+			byte[] W=new byte[EGS];
+			byte[] T=new byte[G1S];
+			MPIN.GET_G1_MULTIPLE(rng,0,W,date!=0?HTID:HID,T);
+
+			byte[] CK=new byte[MPIN.PAS];
+			byte[] SK=new byte[MPIN.PAS];
+			MPIN.CLIENT_KEY(G1,G2,j.get("PIN2").asInt(),R,hex(j,"X"),T,CK);
+			MPIN.SERVER_KEY(Z,hex(j,"SERVER_SECRET"),W,hex(j,"U"),hex(j,"UT"),SK);
+			assertArrayEquals(n,CK,SK);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Checks the Shallue-van de Woestijne maps to G1 and to the twist, and the hash to G2 */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.milagro.amcl.RAND;
+import org.junit.Test;
+
+public class MapTest
+{
+	static RAND rng()
+	{
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+1);
+		RAND rng=new RAND();
+		rng.clean();
+		rng.seed(100,raw);
+		return rng;
+	}
+
+	@Test
+	public void testMapG1()
+	{
+		RAND rng=rng();
+		BIG p=new BIG(ROM.Modulus);
+		BIG r=new BIG(ROM.CURVE_Order);
+		for (int i=0;i<50;i++)
+		{
+			FP u=new FP((i==0)?new BIG(0):BIG.randomnum(p,rng));
+			ECP P=ECP.map2point(u);
+			assertFalse(new ECP(P.getX(),P.getY()).is_infinity());
+			assertTrue(P.mul(r).is_infinity());
+			assertEquals(u.redc().parity(),P.getY().parity());
+		}
+	}
+
+	@Test
+	public void testMapG2()
+	{
+		RAND rng=rng();
+		BIG p=new BIG(ROM.Modulus);
+		for (int i=0;i<50;i++)
+		{
+			FP2 u=new FP2((i==0)?new BIG(0):BIG.randomnum(p,rng),BIG.randomnum(p,rng));
+			ECP2 Q=ECP2.map2point(u);
+			assertFalse(new ECP2(Q.getX(),Q.getY()).is_infinity());
+		}
+	}
+
+	@Test
+	public void testSqrt()
+	{
+		RAND rng=rng();
+		BIG p=new BIG(ROM.Modulus);
+		for (int i=0;i<50;i++)
+		{
+			FP2 z=new FP2(BIG.randomnum(p,rng),(i%5==0)?new BIG(0):BIG.randomnum(p,rng));
+			z.sqr();
+			assertTrue(z.issquare());
+			FP2 s=new FP2(z);
+			s.ctsqrt();
+			s.sqr();
+			assertTrue(s.equals(z));
+		}
+	}
+
+/* the branch-free tests under ctsqrt. p=3 mod 8, so -1 is not a square and exactly one of u^2 and -u^2 is */
+	@Test
+	public void testCtTests()
+	{
+		RAND rng=rng();
+		BIG p=new BIG(ROM.Modulus);
+		BIG t=new BIG(0);
+		assertEquals(1,t.ctzilch());
+		t.inc(1);
+		assertEquals(0,t.ctzilch());
+		assertEquals(1,new FP(p).ctzilch());
+		FP i=new FP();
+		FP s=new FP();
+		assertEquals(1,new FP(0).ctinvsqrt(i,s));
+		for (int k=0;k<50;k++)
+		{
+			FP u=new FP(BIG.randomnum(p,rng));
+			u.sqr();
+			assertEquals(0,u.ctzilch());
+			assertEquals(1,u.ctinvsqrt(i,s));
+			u.neg(); u.norm();
+			assertEquals(0,u.ctinvsqrt(i,s));
+		}
+		FP2 z=new FP2(0);
+		z.ctsqrt();
+		assertTrue(z.iszilch());
+	}
+
+	@Test
+	public void testMapit2()
+	{
+		BIG r=new BIG(ROM.CURVE_Order);
+		for (int i=0;i<5;i++)
+		{
+			byte[] id=("alice"+i+"@milagro.com").getBytes();
+			ECP2 Q=MPIN.mapit2(MPIN.hashit(0,id));
+			assertFalse(Q.is_infinity());
+			assertTrue(Q.mul(r).is_infinity());
+		}
+	}
+
+/* the map is chosen per call, and changes the points of identities. mapit and mapit2 use the one fixed by MPIN.SWMAP */
+	@Test
+	public void testMapitSW()
+	{
+		BIG q=new BIG(ROM.Modulus);
+		BIG r=new BIG(ROM.CURVE_Order);
+		byte[] h=MPIN.hashit(0,"alice@milagro.com".getBytes());
+		byte[] g=MPIN.hashit(0,"bob@milagro.com".getBytes());
+		ECP P=MPIN.mapit(h,false);
+		ECP2 Q=MPIN.mapit2(h,false);
+		BIG x=BIG.fromBytes(h);
+		x.mod(q);
+		ECP SP=MPIN.mapit(h,true);
+		ECP2 SQ=MPIN.mapit2(h,true);
+		assertTrue(SP.equals(ECP.map2point(new FP(x))));
+		assertFalse(SP.equals(P));
+		assertFalse(SQ.equals(Q));
+		assertFalse(SQ.is_infinity());
+		assertTrue(SQ.mul(r).is_infinity());
+		assertFalse(SQ.equals(MPIN.mapit2(g,true)));
+		assertTrue(MPIN.mapit(h).equals(MPIN.SWMAP?SP:P));
+		assertTrue(MPIN.mapit2(h).equals(MPIN.SWMAP?SQ:Q));
+	}
+}
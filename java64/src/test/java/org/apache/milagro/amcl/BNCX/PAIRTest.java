@@ -0,0 +1,84 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks the multi-pairing against a product of single pairings */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.milagro.amcl.RAND;
+import org.junit.Test;
+
+public class PAIRTest
+{
+	static ECP g1()
+	{
+		return new ECP(new BIG(ROM.CURVE_Gx),new BIG(ROM.CURVE_Gy));
+	}
+
+	static ECP2 g2()
+	{
+		return new ECP2(new FP2(new BIG(ROM.CURVE_Pxa),new BIG(ROM.CURVE_Pxb)),new FP2(new BIG(ROM.CURVE_Pya),new BIG(ROM.CURVE_Pyb)));
+	}
+
+/* e(P[0],Q[0])...e(P[n-1],Q[n-1]) for n=1..4, with projective inputs that must come back as they went in */
+	@Test
+	public void testMultiAte()
+	{
+		RAND rng=FFTest.rng();
+		BIG r=new BIG(ROM.CURVE_Order);
+		for (int n=1;n<=4;n++)
+		{
+			ECP2[] P=new ECP2[n];
+			ECP[] Q=new ECP[n];
+			String[] before=new String[2*n];
+			for (int i=0;i<n;i++)
+			{
+				P[i]=PAIR.G2mul(g2(),BIG.randomnum(r,rng));
+				P[i].dbl();
+				Q[i]=PAIR.G1mul(g1(),BIG.randomnum(r,rng));
+				Q[i].dbl();
+				before[2*i]=P[i].getx()+" "+P[i].gety()+" "+P[i].getz();
+				before[2*i+1]=Q[i].getx()+" "+Q[i].gety()+" "+Q[i].getz();
+			}
+			FP12 m=PAIR.fexp(PAIR.multiAte(P,Q));
+			for (int i=0;i<n;i++)
+			{
+				assertEquals(before[2*i],P[i].getx()+" "+P[i].gety()+" "+P[i].getz());
+				assertEquals(before[2*i+1],Q[i].getx()+" "+Q[i].gety()+" "+Q[i].getz());
+			}
+			FP12 e=new FP12(1);
+			for (int i=0;i<n;i++)
+			{
+				ECP2 A=new ECP2(); A.copy(P[i]);
+				ECP B=new ECP(); B.copy(Q[i]);
+				e.mul(PAIR.fexp(PAIR.ate(A,B)));
+			}
+			assertTrue("n="+n,m.equals(e));
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testMultiAteLengths()
+	{
+		PAIR.multiAte(new ECP2[]{g2(),g2()},new ECP[]{g1()});
+	}
+}
@@ -0,0 +1,218 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+/* Checks RSA decryption, with and without an Executor, against the serial path */
+
+package org.apache.milagro.amcl.BNCX;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.milagro.amcl.RAND;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RSATest
+{
+	static final int RFS=RSA.RFS;
+	static rsa_public_key pub,pub3;
+	static rsa_private_key priv,priv3;
+
+	static RAND rng(int s)
+	{
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+s);
+		RAND rng=new RAND();
+		rng.clean();
+		rng.seed(100,raw);
+		return rng;
+	}
+
+	@BeforeClass
+	public static void keys()
+	{
+		pub=new rsa_public_key(ROM.FFLEN);
+		priv=new rsa_private_key(ROM.HFLEN);
+		RSA.KEY_PAIR(rng(1),65537,priv,pub);
+		pub3=new rsa_public_key(ROM.FFLEN);
+		priv3=new rsa_private_key(ROM.HFLEN);
+		RSA.KEY_PAIR(rng(4),3,priv3,pub3);
+	}
+
+/* n random ciphertexts, some of them n or more */
+	static byte[][] ciphertexts(int n,int s)
+	{
+		RAND rng=rng(s);
+		byte[][] C=new byte[n][RFS];
+		for (int i=0;i<n;i++)
+			for (int j=0;j<RFS;j++) C[i][j]=(byte)rng.getByte();
+		return C;
+	}
+
+	static byte[] decrypt(byte[] C)
+	{
+		return decrypt(priv,C);
+	}
+
+	static byte[] decrypt(rsa_private_key K,byte[] C)
+	{
+		byte[] F=new byte[RFS];
+		RSA.DECRYPT(K,C,F);
+		return F;
+	}
+
+	@Test
+	public void testParallelDecrypt()
+	{
+		ForkJoinPool pool=new ForkJoinPool(2);
+		for (byte[] C : ciphertexts(4,2))
+		{
+			byte[] F=new byte[RFS];
+			RSA.DECRYPT(priv,C,F,pool);
+			assertArrayEquals(decrypt(C),F);
+			RSA.DECRYPT(priv,C,F,null);
+			assertArrayEquals(decrypt(C),F);
+		}
+		pool.shutdown();
+	}
+
+/* DECRYPT from the only thread of its own executor must not wait for the queued half */
+	@Test(timeout=60000)
+	public void testDecryptInsideExecutor() throws Exception
+	{
+		final ExecutorService exec=Executors.newSingleThreadExecutor();
+		try
+		{
+			for (final byte[] C : ciphertexts(2,3))
+			{
+				Future<byte[]> r=exec.submit(new Callable<byte[]>()
+				{
+					public byte[] call()
+					{
+						byte[] F=new byte[RFS];
+						RSA.DECRYPT(priv,C,F,exec);
+						return F;
+					}
+				});
+				assertArrayEquals(decrypt(C),r.get(30,TimeUnit.SECONDS));
+			}
+		}
+		finally
+		{
+			exec.shutdownNow();
+		}
+	}
+
+/* a batch with two keys, one of them without its Montgomery constants, and a batch with one key */
+	@Test
+	public void testDecryptBatch()
+	{
+		rsa_private_key bare=new rsa_private_key(priv3.p,priv3.q,priv3.dp,priv3.dq,priv3.c);
+
+		int n=9;
+		byte[][] C=ciphertexts(n,5);
+		byte[][] F=new byte[n][RFS];
+		rsa_private_key[] K=new rsa_private_key[n];
+		for (int i=0;i<n;i++) K[i]=(i%3==0)?bare:priv;
+		ForkJoinPool pool=new ForkJoinPool(3);
+		RSA.DECRYPT_BATCH(K,C,F,pool);
+		pool.shutdown();
+		for (int i=0;i<n;i++) assertArrayEquals(decrypt((i%3==0)?priv3:priv,C[i]),F[i]);
+		assertNull(bare.pR2);   /* the caller's key is not changed */
+
+		RSA.DECRYPT_BATCH(priv,C,F);
+		for (int i=0;i<n;i++) assertArrayEquals(decrypt(C[i]),F[i]);
+		RSA.DECRYPT_BATCH(priv,new byte[0][],new byte[0][]);
+	}
+
+/* a batch that fails part way throws, and leaves the caller's key as it was */
+	@Test
+	public void testDecryptBatchFailure()
+	{
+		rsa_private_key bare=new rsa_private_key(priv.p,priv.q,priv.dp,priv.dq,priv.c);
+		byte[][] C=ciphertexts(4,7);
+		C[2]=null;
+		rsa_private_key[] K={bare,bare,bare,bare};
+		ForkJoinPool pool=new ForkJoinPool(2);
+		try
+		{
+			RSA.DECRYPT_BATCH(K,C,new byte[4][RFS],pool);
+			fail();
+		}
+		catch (NullPointerException e) {}
+		pool.shutdown();
+		assertNull(bare.pR2);
+		assertNull(bare.qR2);
+	}
+
+	static BigInteger big(FF x)
+	{
+		byte[] b=new byte[x.getlen()*ROM.MODBYTES];
+		x.toBytes(b);
+		return new BigInteger(1,b);
+	}
+
+/* p and q are full-length primes =3 mod 4 with p-1 and q-1 coprime to e, n=pq, and the key works */
+	static void checkKey(rsa_private_key K,rsa_public_key P)
+	{
+		BigInteger E=BigInteger.valueOf(P.e);
+		BigInteger four=BigInteger.valueOf(4);
+		for (FF f : new FF[] {K.p,K.q})
+		{
+			BigInteger p=big(f);
+			assertTrue(p.isProbablePrime(64));
+			assertEquals(3,p.mod(four).intValue());
+			assertEquals(256*ROM.HFLEN,p.bitLength());
+			assertEquals(BigInteger.ONE,p.subtract(BigInteger.ONE).gcd(E));
+		}
+		assertEquals(big(K.p).multiply(big(K.q)),big(P.n));
+
+		byte[] M=ciphertexts(1,6)[0];
+		M[0]=0;
+		byte[] C=new byte[RFS];
+		RSA.ENCRYPT(P,M,C);
+		assertArrayEquals(M,decrypt(K,C));
+	}
+
+/* keys from the sieved search, in one thread and with p and q found at once on a pool */
+	@Test
+	public void testKeyPair()
+	{
+		checkKey(priv,pub);
+		checkKey(priv3,pub3);
+
+		rsa_public_key P=new rsa_public_key(ROM.FFLEN);
+		rsa_private_key K=new rsa_private_key(ROM.HFLEN);
+		ForkJoinPool pool=new ForkJoinPool(2);
+		RSA.KEY_PAIR(rng(8),65537,K,P,pool);
+		pool.shutdown();
+		checkKey(K,P);
+	}
+}
@@ -0,0 +1,195 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+
+
+/* Key agreement and signatures on every curve built, each found by name */
+
+package org.apache.milagro.amcl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class CurveContextTest
+{
+	static final int MONTGOMERY=2;
+
+	@Parameters(name="{0}")
+	public static Collection<Object[]> curves()
+	{
+		Collection<Object[]> c=new ArrayList<Object[]>();
+		for (String name : System.getProperty("amcl.curves","BNCX").trim().split("\\s+"))
+			c.add(new Object[] {name});
+		return c;
+	}
+
+	private final String name;
+
+	public CurveContextTest(String name)
+	{
+		this.name=name;
+	}
+
+	static RAND rng()
+	{
+		RAND rng=new RAND();
+		byte[] raw=new byte[100];
+		for (int i=0;i<100;i++) raw[i]=(byte)(i+1);
+		rng.seed(100,raw);
+		return rng;
+	}
+
+	@Test
+	public void testLookup()
+	{
+		CurveContext ctx=CurveContext.get(name);
+		assertNotNull(ctx);
+		assertEquals(name,ctx.name);
+		assertSame(ctx,CurveContext.get(name));
+		assertNull(CurveContext.get(name+"X"));
+	}
+
+	@Test
+	public void testKeyAgreement()
+	{
+		CurveContext ctx=CurveContext.get(name);
+		RAND rng=rng();
+		byte[] S0=new byte[ctx.EGS];
+		byte[] W0=new byte[2*ctx.EFS+1];
+		byte[] S1=new byte[ctx.EGS];
+		byte[] W1=new byte[2*ctx.EFS+1];
+		byte[] Z0=new byte[ctx.EFS];
+		byte[] Z1=new byte[ctx.EFS];
+
+		assertEquals(0,ctx.KEY_PAIR_GENERATE(rng,S0,W0));
+		assertEquals(0,ctx.KEY_PAIR_GENERATE(rng,S1,W1));
+		assertEquals(0,ctx.PUBLIC_KEY_VALIDATE(true,W0));
+		assertEquals(0,ctx.PUBLIC_KEY_VALIDATE(true,W1));
+		assertEquals(0,ctx.ECPSVDP_DH(S0,W1,Z0));
+		assertEquals(0,ctx.ECPSVDP_DH(S1,W0,Z1));
+		assertArrayEquals(Z0,Z1);
+	}
+
+	@Test
+	public void testSignature()
+	{
+		CurveContext ctx=CurveContext.get(name);
+		if (ctx.CURVETYPE==MONTGOMERY) return; /* no signatures on Montgomery curves */
+		RAND rng=rng();
+		byte[] S=new byte[ctx.EGS];
+		byte[] W=new byte[2*ctx.EFS+1];
+		byte[] C=new byte[ctx.EGS];
+		byte[] D=new byte[ctx.EGS];
+		byte[] M="Hello World\n".getBytes();
+
+		assertEquals(0,ctx.KEY_PAIR_GENERATE(rng,S,W));
+		assertEquals(0,ctx.ECPSP_DSA(rng,S,M,C,D));
+		assertEquals(0,ctx.ECPVP_DSA(W,M,C,D));
+		M[0]^=1;
+		assertNotEquals(0,ctx.ECPVP_DSA(W,M,C,D));
+	}
+
+/* batches with bad signatures in them - each result is the one ECPVP_DSA gives, so the group check falls back to single checks */
+	@Test
+	public void testSignatureBatch()
+	{
+		CurveContext ctx=CurveContext.get(name);
+		if (ctx.CURVETYPE==MONTGOMERY) return;
+		RAND rng=rng();
+		int n=12;
+		byte[] S=new byte[ctx.EGS];
+		byte[][] W=new byte[n][2*ctx.EFS+1];
+		byte[][] M=new byte[n][];
+		byte[][] C=new byte[n][ctx.EGS];
+		byte[][] D=new byte[n][ctx.EGS];
+
+		for (int i=0;i<n;i++)
+		{
+			assertEquals(0,ctx.KEY_PAIR_GENERATE(rng,S,W[i]));
+			M[i]=("Message "+i).getBytes();
+			assertEquals(0,ctx.ECPSP_DSA(rng,S,M[i],C[i],D[i]));
+		}
+		assertArrayEquals(new int[n],ctx.ECPVP_DSA_BATCH(rng,W,M,C,D));
+
+/* one bad signature, in the middle of the second group */
+		M[7][0]^=1;
+		int[] res=ctx.ECPVP_DSA_BATCH(rng,W,M,C,D);
+		for (int i=0;i<n;i++)
+		{
+			if (i==7) assertNotEquals(0,res[i]);
+			else assertEquals(0,res[i]);
+		}
+
+/* and more - a wrong key, a zero c and a changed d - across groups */
+		W[1]=W[2].clone();
+		C[4]=new byte[ctx.EGS];
+		D[10][ctx.EGS-1]^=1;
+		res=ctx.ECPVP_DSA_BATCH(rng,W,M,C,D);
+		for (int i=0;i<n;i++)
+		{
+			assertEquals(ctx.ECPVP_DSA(W[i],M[i],C[i],D[i]),res[i]);
+			assertEquals(i==1 || i==4 || i==7 || i==10,res[i]!=0);
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testSignatureBatchNoRNG()
+	{
+		CurveContext ctx=CurveContext.get(name);
+		byte[][] B=new byte[1][];
+		ctx.ECPVP_DSA_BATCH(null,B,B,B,B);
+	}
+
+/* ECP.multiMul has no additions to work with on a Montgomery curve, so it must refuse */
+	@Test
+	public void testMultiMulMontgomery() throws Exception
+	{
+		CurveContext ctx=CurveContext.get(name);
+		Class<?> ecp=Class.forName("org.apache.milagro.amcl."+name+".ECP");
+		Class<?> big=Class.forName("org.apache.milagro.amcl."+name+".BIG");
+		Method mm=ecp.getMethod("multiMul",Array.newInstance(ecp,0).getClass(),Array.newInstance(big,0).getClass());
+		Throwable t=null;
+		try
+		{
+			mm.invoke(null,Array.newInstance(ecp,0),Array.newInstance(big,0));
+		}
+		catch (InvocationTargetException e)
+		{
+			t=e.getCause();
+		}
+		if (ctx.CURVETYPE==MONTGOMERY) assertTrue(t instanceof IllegalArgumentException);
+		else assertNull(t);
+	}
+}